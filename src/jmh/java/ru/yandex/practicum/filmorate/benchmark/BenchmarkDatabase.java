@@ -0,0 +1,149 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+import ru.yandex.practicum.filmorate.storage.shard.RelationShards;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Встроенная H2 со схемой приложения и синтетическими данными заданного размера
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final int BATCH = 5000;
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final List<Integer> filmIds = new ArrayList<>();
+    private final List<Integer> userIds = new ArrayList<>();
+
+    BenchmarkDatabase() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(Runtime.getRuntime().availableProcessors() + 1);
+
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Без шардов и журнала связей: связи в той же базе
+        StaticListableBeanFactory noBeans = new StaticListableBeanFactory();
+        ObjectProvider<RelationShards> unsharded = noBeans.getBeanProvider(RelationShards.class);
+        ObjectProvider<RelationLog> noRelationLog = noBeans.getBeanProvider(RelationLog.class);
+        filmStorage = new FilmDbStorage(jdbcTemplate, unsharded, noRelationLog);
+        userStorage = new UserDbStorage(jdbcTemplate, unsharded, noRelationLog);
+    }
+
+    // Фиксированное зерно — одинаковые данные между запусками и сравниваемыми реализациями
+    void populate(int films, int users, int likesPerUser, int friendsPerUser) {
+        Random random = new Random(42);
+
+        List<User> userBatch = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setEmail("user" + i + "@example.com");
+            user.setLogin("user" + i);
+            user.setName("User " + i);
+            user.setBirthday(LocalDate.of(1970 + random.nextInt(40), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            userBatch.add(user);
+            if (userBatch.size() == BATCH) {
+                userIds.addAll(userStorage.addAll(userBatch));
+                userBatch.clear();
+            }
+        }
+        userIds.addAll(userStorage.addAll(userBatch));
+
+        List<Film> filmBatch = new ArrayList<>();
+        for (int i = 0; i < films; i++) {
+            Film film = new Film();
+            film.setName("Film " + i);
+            film.setDescription("Synthetic film number " + i);
+            film.setReleaseDate(LocalDate.of(1950 + random.nextInt(70), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            film.setDuration(60 + random.nextInt(120));
+            film.setMpa(new Mpa(1 + random.nextInt(5), null, null));
+            int genres = random.nextInt(3);
+            for (int g = 0; g < genres; g++) {
+                film.getGenres().add(new Genre(1 + random.nextInt(6), null));
+            }
+            filmBatch.add(film);
+            if (filmBatch.size() == BATCH) {
+                filmIds.addAll(filmStorage.addAll(filmBatch));
+                filmBatch.clear();
+            }
+        }
+        filmIds.addAll(filmStorage.addAll(filmBatch));
+
+        List<FilmLike> likes = new ArrayList<>();
+        List<Friendship> friendships = new ArrayList<>();
+        for (int userId : userIds) {
+            for (int i = 0; i < likesPerUser; i++) {
+                likes.add(new FilmLike(skewedFilm(random), userId));
+            }
+            for (int i = 0; i < friendsPerUser; i++) {
+                int friendId = randomUser(random);
+                if (friendId != userId) {
+                    friendships.add(new Friendship(userId, friendId));
+                }
+            }
+            if (likes.size() >= BATCH) {
+                filmStorage.addLikes(likes);
+                likes.clear();
+            }
+            if (friendships.size() >= BATCH) {
+                userStorage.addFriendships(friendships);
+                friendships.clear();
+            }
+        }
+        filmStorage.addLikes(likes);
+        userStorage.addFriendships(friendships);
+    }
+
+    int randomFilm(Random random) {
+        return filmIds.get(random.nextInt(filmIds.size()));
+    }
+
+    int randomUser(Random random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    FilmDbStorage filmStorage() {
+        return filmStorage;
+    }
+
+    UserDbStorage userStorage() {
+        return userStorage;
+    }
+
+    JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+
+    // Популярность неравномерна: небольшая доля фильмов собирает большую часть лайков
+    private int skewedFilm(Random random) {
+        double r = random.nextDouble();
+        return filmIds.get((int) (filmIds.size() * r * r * r));
+    }
+}
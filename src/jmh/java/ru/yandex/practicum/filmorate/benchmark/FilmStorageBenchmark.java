@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilmStorageBenchmark {
+
+    @Param({"10000"})
+    private int films;
+
+    @Param({"5000"})
+    private int users;
+
+    @Param({"20"})
+    private int likesPerUser;
+
+    private BenchmarkDatabase database;
+    private FilmDbStorage filmStorage;
+    private FilmLeaderboard leaderboard;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase();
+        database.populate(films, users, likesPerUser, 0);
+        filmStorage = database.filmStorage();
+        leaderboard = new FilmLeaderboard(filmStorage);
+        leaderboard.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<Film> getPopularSql() {
+        return filmStorage.getPopular(10);
+    }
+
+    // Альтернатива getPopularSql: порядок из рейтинга в памяти плюс выборка по первичному ключу
+    @Benchmark
+    public List<Film> getPopularLeaderboard() {
+        return filmStorage.findByIds(leaderboard.top(10));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Film> getAll() {
+        return filmStorage.getAll();
+    }
+
+    @Benchmark
+    public List<Film> getPage() {
+        return filmStorage.getPage(database.randomFilm(random), 100);
+    }
+
+    @Benchmark
+    public Optional<Film> findById() {
+        return filmStorage.findById(database.randomFilm(random));
+    }
+
+    @Benchmark
+    public boolean addLike() {
+        Film film = new Film();
+        film.setId(database.randomFilm(random));
+        User user = new User();
+        user.setId(database.randomUser(random));
+        return filmStorage.addLike(film, user);
+    }
+}
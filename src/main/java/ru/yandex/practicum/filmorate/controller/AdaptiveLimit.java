@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Адаптивный предел одновременных запросов одного класса (AIMD). Запрос, уложившийся в целевую задержку
+// при занятости не меньше половины предела, увеличивает предел на единицу; медленный запрос уменьшает его
+// в backoff раз. Уменьшение — не чаще раза за целевую задержку: запросы, принятые до него, ещё доживают
+// со старым пределом, и их медленные ответы не должны обрушить предел до минимума за один всплеск
+public class AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double backoff;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    // Изменяются под монитором; limit читается без блокировки при каждом запросе
+    private volatile double limit;
+    private long lastDecrease;
+
+    public AdaptiveLimit(int minLimit, int maxLimit, Duration targetLatency, double backoff) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Предел должен удовлетворять 0 < min <= max");
+        }
+        if (backoff <= 0 || backoff >= 1) {
+            throw new IllegalArgumentException("Коэффициент уменьшения предела должен быть между 0 и 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetLatency.toNanos();
+        this.backoff = backoff;
+        // Начинаем с максимума: без перегрузки запросы не отклоняются, предел снижается по мере роста задержки
+        this.limit = maxLimit;
+        this.lastDecrease = System.nanoTime() - targetNanos;
+    }
+
+    // false — предел исчерпан, запрос нужно отклонить
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                reject();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Учитывает отказ, принятый без попытки занять место (см. приоритет классов в ConcurrencyLimitFilter)
+    public void reject() {
+        rejected.increment();
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos > targetNanos) {
+            decrease();
+        } else if (current * 2 >= getLimit()) {
+            increase();
+        }
+    }
+
+    // Принудительное снижение, когда перегрузку показал другой класс запросов
+    public synchronized void decrease() {
+        long now = System.nanoTime();
+        if (now - lastDecrease < targetNanos) {
+            return;
+        }
+        lastDecrease = now;
+        limit = Math.max(minLimit, limit * backoff);
+    }
+
+    public boolean isSaturated() {
+        return inFlight.get() >= getLimit();
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private synchronized void increase() {
+        limit = Math.min(maxLimit, limit + 1);
+    }
+}
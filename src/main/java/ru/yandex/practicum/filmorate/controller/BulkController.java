@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.BulkImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+// Массовый импорт: принимает JSON-массив или поток NDJSON (одна запись на строку)
+@RestController
+@RequestMapping("/bulk")
+@RequiredArgsConstructor
+@Slf4j
+public class BulkController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkImportService bulkImportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/films", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult importFilms(@RequestBody List<Film> films) {
+        log.info("Получен запрос POST /bulk/films: {} записей", films.size());
+        return bulkImportService.importFilms(films.iterator());
+    }
+
+    @PostMapping(value = "/films", consumes = NDJSON)
+    public BulkResult importFilmsNdjson(InputStream body) throws IOException {
+        log.info("Получен запрос POST /bulk/films (NDJSON)");
+        return bulkImportService.importFilms(readNdjson(body, Film.class));
+    }
+
+    @PostMapping(value = "/users", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult importUsers(@RequestBody List<User> users) {
+        log.info("Получен запрос POST /bulk/users: {} записей", users.size());
+        return bulkImportService.importUsers(users.iterator());
+    }
+
+    @PostMapping(value = "/users", consumes = NDJSON)
+    public BulkResult importUsersNdjson(InputStream body) throws IOException {
+        log.info("Получен запрос POST /bulk/users (NDJSON)");
+        return bulkImportService.importUsers(readNdjson(body, User.class));
+    }
+
+    @PostMapping(value = "/likes", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult importLikes(@RequestBody List<FilmLike> likes) {
+        log.info("Получен запрос POST /bulk/likes: {} записей", likes.size());
+        return bulkImportService.importLikes(likes.iterator());
+    }
+
+    @PostMapping(value = "/likes", consumes = NDJSON)
+    public BulkResult importLikesNdjson(InputStream body) throws IOException {
+        log.info("Получен запрос POST /bulk/likes (NDJSON)");
+        return bulkImportService.importLikes(readNdjson(body, FilmLike.class));
+    }
+
+    @PostMapping(value = "/friendships", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkResult importFriendships(@RequestBody List<Friendship> friendships) {
+        log.info("Получен запрос POST /bulk/friendships: {} записей", friendships.size());
+        return bulkImportService.importFriendships(friendships.iterator());
+    }
+
+    @PostMapping(value = "/friendships", consumes = NDJSON)
+    public BulkResult importFriendshipsNdjson(InputStream body) throws IOException {
+        log.info("Получен запрос POST /bulk/friendships (NDJSON)");
+        return bulkImportService.importFriendships(readNdjson(body, Friendship.class));
+    }
+
+    // Ленивое чтение потока: записи разбираются по мере того, как их забирает импорт
+    private <T> Iterator<T> readNdjson(InputStream body, Class<T> type) throws IOException {
+        MappingIterator<T> values = objectMapper.readerFor(type).readValues(body);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw new ValidationException("Некорректная строка NDJSON: " + e.getMessage());
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return values.nextValue();
+                } catch (IOException e) {
+                    throw new ValidationException("Некорректная строка NDJSON: " + e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,193 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.filmorate.model.ErrorResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Ограничение одновременных запросов (filmorate.concurrency-limit.enabled=true). У каждого класса запросов
+// свой адаптивный предел (AdaptiveLimit); сверх него запрос сразу получает 503 с Retry-After, а не ждёт
+// в очереди Tomcat. Тяжёлые запросы — полные выборки, выгрузка, рекомендации, массовый импорт — уступают
+// записи и точечным чтениям: не принимаются, пока те упираются в свой предел, а каждый отказ приоритетному
+// запросу снижает предел тяжёлых. Фильтр стоит первым, чтобы отказ не стоил ни разбора, ни журнала тела
+@Component
+@ConditionalOnProperty(name = "filmorate.concurrency-limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum RequestClass { WRITE, POINT_READ, HEAVY }
+
+    private final Map<RequestClass, AdaptiveLimit> limits = new EnumMap<>(RequestClass.class);
+    private final String retryAfterSeconds;
+    private final byte[] rejection;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper,
+                                  @Value("${filmorate.concurrency-limit.min-limit:4}") int minLimit,
+                                  @Value("${filmorate.concurrency-limit.backoff:0.9}") double backoff,
+                                  @Value("${filmorate.concurrency-limit.write.max-limit:200}") int writeMax,
+                                  @Value("${filmorate.concurrency-limit.write.target-latency:PT0.1S}")
+                                  Duration writeTarget,
+                                  @Value("${filmorate.concurrency-limit.point-read.max-limit:200}") int pointReadMax,
+                                  @Value("${filmorate.concurrency-limit.point-read.target-latency:PT0.1S}")
+                                  Duration pointReadTarget,
+                                  @Value("${filmorate.concurrency-limit.heavy.max-limit:20}") int heavyMax,
+                                  @Value("${filmorate.concurrency-limit.heavy.target-latency:PT2S}")
+                                  Duration heavyTarget,
+                                  @Value("${filmorate.concurrency-limit.retry-after:PT1S}") Duration retryAfter)
+            throws JsonProcessingException {
+        limits.put(RequestClass.WRITE,
+                new AdaptiveLimit(Math.min(minLimit, writeMax), writeMax, writeTarget, backoff));
+        limits.put(RequestClass.POINT_READ,
+                new AdaptiveLimit(Math.min(minLimit, pointReadMax), pointReadMax, pointReadTarget, backoff));
+        limits.put(RequestClass.HEAVY,
+                new AdaptiveLimit(Math.min(minLimit, heavyMax), heavyMax, heavyTarget, backoff));
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.rejection = objectMapper.writeValueAsBytes(
+                new ErrorResponse("Сервер перегружен, повторите запрос позже"));
+    }
+
+    public Map<RequestClass, AdaptiveLimit> getLimits() {
+        return Collections.unmodifiableMap(limits);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestClass requestClass = classify(request);
+        if (requestClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!admit(requestClass)) {
+            log.debug("Запрос отклонён из-за перегрузки: {} {} ({})",
+                    request.getMethod(), request.getRequestURI(), requestClass);
+            reject(response);
+            return;
+        }
+
+        AdaptiveLimit limit = limits.get(requestClass);
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Потоковый ответ дописывается после выхода из фильтра — место освобождается по его завершении
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limit, started));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limit.release(System.nanoTime() - started);
+            }
+        }
+    }
+
+    // null — запрос не ограничивается
+    static RequestClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/actuator") || path.startsWith("/h2-console")) {
+            return null;
+        }
+        if (path.startsWith("/bulk/")) {
+            return RequestClass.HEAVY;
+        }
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return RequestClass.WRITE;
+        }
+        boolean unpaged = request.getParameter("limit") == null;
+        if ((path.equals("/films") || path.equals("/users")) && unpaged
+                || path.equals("/films/export")
+                || path.endsWith("/recommendations")
+                || path.endsWith("/friends/suggestions")) {
+            return RequestClass.HEAVY;
+        }
+        return RequestClass.POINT_READ;
+    }
+
+    private boolean admit(RequestClass requestClass) {
+        AdaptiveLimit heavy = limits.get(RequestClass.HEAVY);
+        if (requestClass == RequestClass.HEAVY) {
+            if (limits.get(RequestClass.WRITE).isSaturated() || limits.get(RequestClass.POINT_READ).isSaturated()) {
+                heavy.reject();
+                return false;
+            }
+            return heavy.tryAcquire();
+        }
+        if (limits.get(requestClass).tryAcquire()) {
+            return true;
+        }
+        heavy.decrease();
+        return false;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejection.length);
+        response.getOutputStream().write(rejection);
+    }
+
+    // Таймаут асинхронного запроса завершается ещё и onComplete — место освобождается один раз
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AdaptiveLimit limit;
+        private final long started;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(AdaptiveLimit limit, long started) {
+            this.limit = limit;
+            this.started = started;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - started);
+            }
+        }
+    }
+}
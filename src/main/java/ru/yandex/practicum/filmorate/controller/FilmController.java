@@ -1,10 +1,19 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.yandex.practicum.filmorate.model.Film;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.service.EntityVersions;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.List;
@@ -15,11 +24,43 @@ import java.util.List;
 @Validated
 public class FilmController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_PAGE_SIZE = Pagination.MAX_LIMIT;
+
     private final FilmService filmService;
+    private final EntityVersions versions;
+    private final JsonResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+
+    // Весь каталог — теми же страницами, что и выгрузка: массив пишется по мере чтения страниц
+    @GetMapping(params = "!limit")
+    public ResponseEntity<StreamingResponseBody> getAll() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(streamFilms(true));
+    }
 
-    @GetMapping
-    public List<Film> getAll() {
-        return filmService.getAll();
+    @GetMapping(params = "limit")
+    public ResponseEntity<List<Film>> getPage(@RequestParam int limit,
+                                              @RequestParam(defaultValue = "0") int after) {
+        Pagination.validate(limit, after);
+        return Pagination.page(filmService.getPage(after, limit), limit, Film::getId);
+    }
+
+    // Выгрузка всего каталога построчно (NDJSON), без накопления списка в памяти
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok().contentType(NDJSON).body(streamFilms(false));
+    }
+
+    @GetMapping("/search")
+    public List<Film> search(@RequestParam(required = false) String q,
+                             @RequestParam(defaultValue = "10") int limit) {
+        return filmService.search(q, limit);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<Film> autocomplete(@RequestParam(required = false) String prefix,
+                                   @RequestParam(defaultValue = "10") int limit) {
+        return filmService.autocomplete(prefix, limit);
     }
 
     @PostMapping
@@ -32,9 +73,14 @@ public class FilmController {
         return filmService.update(film);
     }
 
+    // При совпадении If-None-Match отвечаем 304 до обращения к сервису: тег строится только из счётчиков
     @GetMapping("/{id}")
-    public Film getById(@PathVariable int id) {
-        return filmService.getById(id);
+    public ResponseEntity<byte[]> getById(@PathVariable int id, WebRequest request) {
+        String tag = versions.filmTag(id);
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("film:" + id, tag, () -> filmService.getById(id));
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -48,7 +94,43 @@ public class FilmController {
     }
 
     @GetMapping("/popular")
-    public List<Film> getPopular(@RequestParam(defaultValue = "10") int count) {
-        return filmService.getPopular(count);
+    public ResponseEntity<byte[]> getPopular(@RequestParam(defaultValue = "10") int count, WebRequest request) {
+        String tag = versions.popularTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("popular:" + count, tag, () -> filmService.getPopular(count));
+    }
+
+    // Каталог читается страницами по id, каждая — в своей короткой транзакции: пока ответ пишется
+    // в сокет медленному клиенту, соединение из пула чтения не занято
+    private StreamingResponseBody streamFilms(boolean asArray) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                if (asArray) {
+                    generator.writeStartArray();
+                }
+                List<Film> page;
+                int after = 0;
+                do {
+                    page = filmService.getPage(after, EXPORT_PAGE_SIZE);
+                    for (Film film : page) {
+                        writer.writeValue(generator, film);
+                        if (!asArray) {
+                            generator.writeRaw('\n');
+                        }
+                    }
+                    if (!page.isEmpty()) {
+                        after = page.get(page.size() - 1).getId();
+                    }
+                    generator.flush();
+                } while (page.size() == EXPORT_PAGE_SIZE);
+                if (asArray) {
+                    generator.writeEndArray();
+                }
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,12 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.model.Genre;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.service.EntityVersions;
 import ru.yandex.practicum.filmorate.service.GenreService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/genres")
 @RequiredArgsConstructor
@@ -15,16 +15,26 @@ import java.util.List;
 public class GenreController {
 
     private final GenreService genreService;
+    private final EntityVersions versions;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public List<Genre> getAll() {
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
         log.info("Получен запрос GET /genres");
-        return genreService.getAll();
+        String tag = versions.referenceTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("genres", tag, genreService::getAll);
     }
 
     @GetMapping("/{id}")
-    public Genre getById(@PathVariable int id) {
+    public ResponseEntity<byte[]> getById(@PathVariable int id, WebRequest request) {
         log.info("Получен запрос GET /genres/{}", id);
-        return genreService.getById(id);
+        String tag = versions.referenceTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("genres:" + id, tag, () -> genreService.getById(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Готовые UTF-8 байты JSON-ответов горячих GET-запросов: при попадании не строим объекты и не вызываем Jackson.
+// Запись привязана к тегу версии из EntityVersions: после изменения данных тег другой, и запись просто
+// не совпадёт. Объём ограничен filmorate.response-cache.max-size (0 — кэш выключен), вытеснение LRU.
+@Component
+public class JsonResponseCache {
+
+    private final ObjectMapper objectMapper;
+    @Getter
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${filmorate.response-cache.max-size:16MB}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public ResponseEntity<byte[]> respond(String key, String tag, Supplier<?> loader) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(get(key, tag, loader));
+    }
+
+    byte[] get(String key, String tag, Supplier<?> loader) {
+        byte[] cached = lookup(key, tag);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        byte[] body = serialize(loader.get());
+        store(key, tag, body);
+        return body;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            totalBytes = 0;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getSizeBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private byte[] lookup(String key, String tag) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!entry.tag().equals(tag)) {
+                // Данные изменились: устаревшие байты больше никому не нужны
+                remove(key);
+                return null;
+            }
+            return entry.body();
+        }
+    }
+
+    private void store(String key, String tag, byte[] body) {
+        if (body.length > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            remove(key);
+            entries.put(key, new Entry(tag, body));
+            totalBytes += body.length;
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().body().length;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.body().length;
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Entry(String tag, byte[] body) {
+    }
+}
@@ -2,12 +2,12 @@ package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.filmorate.model.Mpa;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.service.EntityVersions;
 import ru.yandex.practicum.filmorate.service.MpaService;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/mpa")
 @RequiredArgsConstructor
@@ -15,16 +15,26 @@ import java.util.List;
 public class MpaController {
 
     private final MpaService mpaService;
+    private final EntityVersions versions;
+    private final JsonResponseCache responseCache;
 
     @GetMapping
-    public List<Mpa> getAll() {
+    public ResponseEntity<byte[]> getAll(WebRequest request) {
         log.info("Получен запрос GET /mpa");
-        return mpaService.getAll();
+        String tag = versions.referenceTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("mpa", tag, mpaService::getAll);
     }
 
     @GetMapping("/{id}")
-    public Mpa getById(@PathVariable int id) {
+    public ResponseEntity<byte[]> getById(@PathVariable int id, WebRequest request) {
         log.info("Получен запрос GET /mpa/{}", id);
-        return mpaService.getById(id);
+        String tag = versions.referenceTag();
+        if (request.checkNotModified(tag)) {
+            return null;
+        }
+        return responseCache.respond("mpa:" + id, tag, () -> mpaService.getById(id));
     }
 }
\ No newline at end of file
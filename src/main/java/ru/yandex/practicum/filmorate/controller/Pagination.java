@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+// Курсорная пагинация: ?limit=&after=<id>, курсор следующей страницы возвращается в заголовке
+final class Pagination {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int MAX_LIMIT = 1000;
+
+    private Pagination() {
+    }
+
+    static void validate(int limit, int after) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + MAX_LIMIT);
+        }
+        if (after < 0) {
+            throw new ValidationException("Параметр after не может быть отрицательным");
+        }
+    }
+
+    // Полная страница означает, что дальше могут быть записи: отдаём id последней как курсор
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, ToIntFunction<T> idExtractor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idExtractor.applyAsInt(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+}
@@ -4,8 +4,13 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.EntityVersions;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.List;
@@ -17,6 +22,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final FilmService filmService;
+    private final EntityVersions versions;
 
     @PostMapping
     @ResponseStatus(HttpStatus.OK)
@@ -33,9 +40,21 @@ public class UserController {
     }
 
     @GetMapping
-    public List<User> getAll() {
+    public ResponseEntity<List<User>> getAll(@RequestParam(required = false) Integer limit,
+                                             @RequestParam(defaultValue = "0") int after) {
         log.info("Получен запрос GET /users");
-        return userService.getAll();
+        if (limit == null) {
+            return ResponseEntity.ok(userService.getAll());
+        }
+        Pagination.validate(limit, after);
+        return Pagination.page(userService.getPage(after, limit), limit, User::getId);
+    }
+
+    @GetMapping("/autocomplete")
+    public List<User> autocomplete(@RequestParam(required = false) String prefix,
+                                   @RequestParam(defaultValue = "10") int limit) {
+        log.info("Получен запрос GET /users/autocomplete");
+        return userService.autocomplete(prefix, limit);
     }
 
     @GetMapping("/{id}")
@@ -59,9 +78,25 @@ public class UserController {
     }
 
     @GetMapping("/{id}/friends")
-    public List<User> getFriends(@PathVariable int id) {
+    public ResponseEntity<List<User>> getFriends(@PathVariable int id,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(defaultValue = "0") int after,
+                                                 WebRequest request) {
         log.info("Получен запрос GET /users/{}/friends", id);
-        return userService.getFriends(id);
+        if (request.checkNotModified(versions.friendsTag(id))) {
+            return null;
+        }
+        if (limit == null) {
+            return ResponseEntity.ok(userService.getFriends(id));
+        }
+        Pagination.validate(limit, after);
+        return Pagination.page(userService.getFriendsPage(id, after, limit), limit, User::getId);
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        log.info("Получен запрос GET /users/{}/friends/suggestions", id);
+        return userService.getFriendSuggestions(id, limit);
     }
 
     @GetMapping("/{id}/friends/common/{otherId}")
@@ -69,4 +104,10 @@ public class UserController {
         log.info("Получен запрос GET /users/{}/friends/common/{}", id, otherId);
         return userService.getCommonFriends(id, otherId);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable int id, @RequestParam(defaultValue = "10") int limit) {
+        log.info("Получен запрос GET /users/{}/recommendations", id);
+        return filmService.getRecommendations(id, limit);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BulkResult {
+    // Сколько записей реально добавлено
+    private int count;
+
+    // Сгенерированные id в порядке входных данных (для фильмов и пользователей)
+    private List<Integer> ids;
+}
@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -32,4 +33,8 @@ public class Film {
     // Рейтинг MPA
     @NotNull(message = "Рейтинг MPA не может быть null")
     private Mpa mpa;
+
+    // Количество лайков; задаётся только сервером
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private int likesCount;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Friendship {
+    @Positive(message = "ID пользователя должен быть положительным")
+    private int userId;
+
+    @Positive(message = "ID друга должен быть положительным")
+    private int friendId;
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// Счётчики реально изменённых лайков и связей дружбы (повторные и пустые операции не считаются)
+@Component
+public class ActivityMetrics {
+
+    private final Counter likesAdded;
+    private final Counter likesRemoved;
+    private final Counter friendshipsAdded;
+    private final Counter friendshipsRemoved;
+
+    public ActivityMetrics(MeterRegistry meterRegistry) {
+        likesAdded = counter(meterRegistry, "filmorate.likes", "added");
+        likesRemoved = counter(meterRegistry, "filmorate.likes", "removed");
+        friendshipsAdded = counter(meterRegistry, "filmorate.friendships", "added");
+        friendshipsRemoved = counter(meterRegistry, "filmorate.friendships", "removed");
+    }
+
+    public void likesAdded(int count) {
+        likesAdded.increment(count);
+    }
+
+    public void likeRemoved() {
+        likesRemoved.increment();
+    }
+
+    public void friendshipsAdded(int count) {
+        friendshipsAdded.increment(count);
+    }
+
+    public void friendshipRemoved() {
+        friendshipsRemoved.increment();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String action) {
+        return Counter.builder(name)
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+}
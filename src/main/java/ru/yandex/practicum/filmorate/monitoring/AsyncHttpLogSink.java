@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Журнал HTTP для боевого режима (filmorate.http-log.async=true), заменяет стандартный Sink Logbook.
+// Ошибки (статус от 400) и медленные запросы пишутся всегда, остальные — только попавшие в выборку
+// HttpLogSampling; тела есть только у выбранных обменов, их же стратегия и копирует.
+// На потоке запроса только снимаются нужные поля; форматирование и вывод — в отдельном потоке.
+// Если ограниченная очередь заполнена, запись отбрасывается и учитывается в счётчике, запрос не ждёт
+@Component
+@ConditionalOnProperty(name = "filmorate.http-log.async", havingValue = "true")
+@Slf4j
+public class AsyncHttpLogSink implements Sink {
+
+    public enum Reason { ERROR, SLOW, SAMPLED }
+
+    private final Duration slowThreshold;
+    private final BlockingQueue<Exchange> queue;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncHttpLogSink(@Value("${filmorate.http-log.slow-threshold:PT0.5S}") Duration slowThreshold,
+                            @Value("${filmorate.http-log.buffer-size:8192}") int bufferSize) {
+        this.slowThreshold = slowThreshold;
+        this.queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drain, "http-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Асинхронный журнал HTTP включён: медленные от {}, буфер {}",
+                slowThreshold, queue.remainingCapacity());
+    }
+
+    // Дописывает то, что успело попасть в очередь до остановки
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Exchange exchange;
+        while ((exchange = queue.poll()) != null) {
+            write(exchange);
+        }
+    }
+
+    // Запрос без ответа не пишем: решение зависит от статуса и длительности
+    @Override
+    public void write(Precorrelation precorrelation, HttpRequest request) {
+    }
+
+    @Override
+    public void write(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+        Reason reason = reasonFor(correlation, request, response);
+        if (reason == null) {
+            skipped.increment();
+            return;
+        }
+        Exchange exchange = new Exchange(reason, correlation.getId(), request.getMethod(), request.getRequestUri(),
+                response.getStatus(), correlation.getDuration().toMillis(),
+                request.getBodyAsString(), response.getBodyAsString());
+        if (!queue.offer(exchange)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private Reason reasonFor(Correlation correlation, HttpRequest request, HttpResponse response) {
+        if (response.getStatus() >= 400) {
+            return Reason.ERROR;
+        }
+        if (correlation.getDuration().compareTo(slowThreshold) >= 0) {
+            return Reason.SLOW;
+        }
+        if (HttpLogSampling.isSampled(request)) {
+            return Reason.SAMPLED;
+        }
+        return null;
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                write(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Не удалось записать HTTP-обмен в журнал", e);
+            }
+        }
+    }
+
+    private void write(Exchange exchange) {
+        String message = "{} {} {} {} → {} за {} мс\nЗапрос: {}\nОтвет: {}";
+        Object[] args = {exchange.reason(), exchange.id(), exchange.method(), exchange.uri(), exchange.status(),
+                exchange.durationMillis(), exchange.requestBody(), exchange.responseBody()};
+        if (exchange.reason() == Reason.SAMPLED) {
+            log.info(message, args);
+        } else {
+            log.warn(message, args);
+        }
+    }
+
+    private record Exchange(Reason reason, String id, String method, String uri, int status, long durationMillis,
+                            String requestBody, String responseBody) {
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.AdaptiveLimit;
+import ru.yandex.practicum.filmorate.controller.ConcurrencyLimitFilter;
+
+import java.util.Locale;
+
+// Текущий предел, занятость и отказы по классам запросов (только если ограничение включено)
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitMetrics implements MeterBinder {
+
+    private final ObjectProvider<ConcurrencyLimitFilter> concurrencyLimitFilter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        concurrencyLimitFilter.ifAvailable(filter -> filter.getLimits().forEach((requestClass, limit) -> {
+            String name = requestClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("filmorate.concurrency.limit", limit, AdaptiveLimit::getLimit)
+                    .tag("class", name)
+                    .register(registry);
+            Gauge.builder("filmorate.concurrency.in.flight", limit, AdaptiveLimit::getInFlight)
+                    .tag("class", name)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.concurrency.rejected", limit, AdaptiveLimit::getRejectedCount)
+                    .tag("class", name)
+                    .register(registry);
+        }));
+    }
+}
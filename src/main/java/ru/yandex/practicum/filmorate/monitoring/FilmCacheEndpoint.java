@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+
+// Статистика кэша фильмов: GET /actuator/filmcache, очистка — DELETE /actuator/filmcache
+@Component
+@Endpoint(id = "filmcache")
+@RequiredArgsConstructor
+public class FilmCacheEndpoint {
+
+    private final FilmCache filmCache;
+
+    @ReadOperation
+    public CacheStats stats() {
+        return filmCache.stats();
+    }
+
+    @DeleteOperation
+    public void clear() {
+        filmCache.clear();
+    }
+}
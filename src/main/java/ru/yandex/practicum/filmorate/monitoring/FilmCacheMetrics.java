@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+
+// Статистика кэша фильмов в виде метрик (дублирует /actuator/filmcache для Prometheus)
+@Component
+@RequiredArgsConstructor
+public class FilmCacheMetrics implements MeterBinder {
+
+    private final FilmCache filmCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.film.cache.size", filmCache, cache -> cache.stats().getSize())
+                .register(registry);
+        FunctionCounter.builder("filmorate.film.cache.requests", filmCache, cache -> cache.stats().getHits())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.film.cache.requests", filmCache, cache -> cache.stats().getMisses())
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filmorate.film.cache.evictions", filmCache, cache -> cache.stats().getEvictions())
+                .register(registry);
+    }
+}
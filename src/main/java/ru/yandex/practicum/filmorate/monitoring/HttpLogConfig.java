@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+// Какие запросы попадают в журнал Logbook: бин requestCondition заменяет стандартный, исключения
+// logbook.predicate.exclude применяются поверх него. Полный список GET /films без limit, как и /films/export,
+// отдаётся потоком — Logbook держал бы в памяти всё тело ответа, поэтому такие запросы не журналируются
+@Configuration(proxyBeanMethods = false)
+public class HttpLogConfig {
+
+    @Bean
+    public Predicate<HttpRequest> requestCondition() {
+        return request -> !isUnpagedFilmList(request);
+    }
+
+    static boolean isUnpagedFilmList(HttpRequest request) {
+        return "GET".equals(request.getMethod())
+                && "/films".equals(request.getPath())
+                && Arrays.stream(request.getQuery().split("&")).noneMatch(param -> param.startsWith("limit="));
+    }
+}
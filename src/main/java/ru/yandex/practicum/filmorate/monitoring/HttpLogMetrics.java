@@ -0,0 +1,29 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// Очередь асинхронного журнала HTTP и отброшенные записи (только если режим включён)
+@Component
+@RequiredArgsConstructor
+public class HttpLogMetrics implements MeterBinder {
+
+    private final ObjectProvider<AsyncHttpLogSink> httpLogSink;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        httpLogSink.ifAvailable(sink -> {
+            Gauge.builder("filmorate.http.log.pending", sink, AsyncHttpLogSink::getPendingCount)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.http.log.dropped", sink, AsyncHttpLogSink::getDroppedCount)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.http.log.skipped", sink, AsyncHttpLogSink::getSkippedCount)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+import org.zalando.logbook.attributes.AttributeExtractor;
+import org.zalando.logbook.attributes.HttpAttributes;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Выборка тел для асинхронного журнала HTTP (filmorate.http-log.async=true), заменяет стандартную стратегию
+// Logbook, которая копирует в память тело каждого запроса и ответа. Решение о выборке принимается при
+// входе запроса и хранится в его атрибутах; тела копируются только у выбранных обменов. Статус и длительность
+// до выполнения запроса неизвестны, поэтому ошибки и медленные запросы вне выборки AsyncHttpLogSink пишет без тел
+@Component
+@ConditionalOnProperty(name = "filmorate.http-log.async", havingValue = "true")
+public class HttpLogSampling implements Strategy, AttributeExtractor {
+
+    static final String SAMPLED = "filmorate.http-log.sampled";
+
+    private final double sampleRate;
+
+    public HttpLogSampling(@Value("${filmorate.http-log.sample-rate:0.01}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public static boolean isSampled(HttpRequest request) {
+        return Boolean.TRUE.equals(request.getAttributes().get(SAMPLED));
+    }
+
+    @Override
+    public HttpAttributes extract(HttpRequest request) {
+        return HttpAttributes.of(SAMPLED, sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    // Атрибуты появляются у запроса только после этого шага — тело пока не копируем
+    @Override
+    public HttpRequest process(HttpRequest request) {
+        return request;
+    }
+
+    // Вызывается до выполнения запроса. withBody у запроса меняет состояние самого сервлетного запроса
+    // под обёртками Logbook, поэтому тело выбранного запроса копируется, когда его читает контроллер
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        if (isSampled(request)) {
+            request.withBody();
+            return response.withBody();
+        }
+        return response.withoutBody();
+    }
+}
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBehind;
+
+// Размер буфера отложенной записи лайков (только если режим включён)
+@Component
+@RequiredArgsConstructor
+public class LikeWriteBehindMetrics implements MeterBinder {
+
+    private final ObjectProvider<LikeWriteBehind> likeWriteBehind;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        likeWriteBehind.ifAvailable(buffer ->
+                Gauge.builder("filmorate.likes.write.behind.pending", buffer, LikeWriteBehind::getPendingCount)
+                        .register(registry));
+    }
+}
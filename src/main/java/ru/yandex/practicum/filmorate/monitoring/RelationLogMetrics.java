@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+
+// Записи, сбросы на диск и сжатия журнала связей (только если журнал включён)
+@Component
+@RequiredArgsConstructor
+public class RelationLogMetrics implements MeterBinder {
+
+    private final ObjectProvider<RelationLog> relationLog;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        relationLog.ifAvailable(journal -> {
+            FunctionCounter.builder("filmorate.relation.log.records", journal, RelationLog::getAppendedCount)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.relation.log.syncs", journal, RelationLog::getSyncCount)
+                    .register(registry);
+            FunctionCounter.builder("filmorate.relation.log.compactions", journal, RelationLog::getCompactionCount)
+                    .register(registry);
+            Gauge.builder("filmorate.relation.log.segments", journal, RelationLog::getSegmentCount)
+                    .register(registry);
+        });
+    }
+}
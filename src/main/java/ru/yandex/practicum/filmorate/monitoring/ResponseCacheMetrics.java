@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.controller.JsonResponseCache;
+
+// Попадания и объём кэша сериализованных ответов
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheMetrics implements MeterBinder {
+
+    private final JsonResponseCache responseCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.response.cache.size", responseCache, JsonResponseCache::getSizeBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("filmorate.response.cache.max.size", responseCache, JsonResponseCache::getMaxBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("filmorate.response.cache.requests", responseCache, JsonResponseCache::getHits)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.response.cache.requests", responseCache, JsonResponseCache::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filmorate.response.cache.evictions", responseCache, JsonResponseCache::getEvictions)
+                .register(registry);
+    }
+}
@@ -0,0 +1,298 @@
+package ru.yandex.practicum.filmorate.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.monitoring.ActivityMetrics;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikesIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmTitleIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserLoginIndex;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+
+// Массовая загрузка данных: записи сначала читаются и проверяются целиком, вместе со ссылками,
+// затем пишутся пакетами JDBC в одной транзакции. Шарды, журнал связей и хранилища в памяти
+// пишут мимо этой транзакции, поэтому ошибка в середине загрузки не должна наступать после первой записи
+@Service
+@Slf4j
+public class BulkImportService {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final FilmLeaderboard leaderboard;
+    private final FilmLikesIndex likesIndex;
+    private final FilmSearchIndex searchIndex;
+    private final FilmTitleIndex titleIndex;
+    private final FriendshipGraph friendshipGraph;
+    private final FriendSuggestions friendSuggestions;
+    private final UserLoginIndex loginIndex;
+    private final FilmService filmService;
+    private final UserService userService;
+    private final Validator validator;
+    private final ActivityMetrics activityMetrics;
+    private final EntityVersions versions;
+    private final LikeWriteBehind likeWriteBehind;
+    private final int chunkSize;
+
+    public BulkImportService(FilmStorage filmStorage,
+                             UserStorage userStorage,
+                             MpaStorage mpaStorage,
+                             GenreStorage genreStorage,
+                             FilmLeaderboard leaderboard,
+                             FilmLikesIndex likesIndex,
+                             FilmSearchIndex searchIndex,
+                             FilmTitleIndex titleIndex,
+                             FriendshipGraph friendshipGraph,
+                             FriendSuggestions friendSuggestions,
+                             UserLoginIndex loginIndex,
+                             FilmService filmService,
+                             UserService userService,
+                             Validator validator,
+                             ActivityMetrics activityMetrics,
+                             EntityVersions versions,
+                             ObjectProvider<LikeWriteBehind> likeWriteBehind,
+                             @Value("${filmorate.bulk.chunk-size:1000}") int chunkSize) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+        this.leaderboard = leaderboard;
+        this.likesIndex = likesIndex;
+        this.searchIndex = searchIndex;
+        this.titleIndex = titleIndex;
+        this.friendshipGraph = friendshipGraph;
+        this.friendSuggestions = friendSuggestions;
+        this.loginIndex = loginIndex;
+        this.filmService = filmService;
+        this.userService = userService;
+        this.validator = validator;
+        this.activityMetrics = activityMetrics;
+        this.versions = versions;
+        this.likeWriteBehind = likeWriteBehind.getIfAvailable();
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional
+    public BulkResult importFilms(Iterator<Film> films) {
+        List<Film> imported = readAll(films, (film, position) -> {
+            validateBean(film, position);
+            validateReferences(film, position);
+            filmService.validateFilm(film);
+        });
+        List<Integer> ids = new ArrayList<>();
+        forEachChunk(imported, chunk -> ids.addAll(filmStorage.addAll(chunk)));
+
+        afterCommit(() -> {
+            imported.forEach(film -> {
+                leaderboard.register(film.getId());
+                searchIndex.index(film.getId(), film.getName(), film.getDescription());
+                titleIndex.put(film.getId(), film.getName());
+            });
+            versions.filmAdded();
+        });
+        log.info("Импортировано фильмов: {}", ids.size());
+        return new BulkResult(ids.size(), ids);
+    }
+
+    @Transactional
+    public BulkResult importUsers(Iterator<User> users) {
+        List<User> imported = readAll(users, (user, position) -> {
+            validateBean(user, position);
+            userService.prepareNewUser(user);
+        });
+        List<Integer> ids = new ArrayList<>();
+        forEachChunk(imported, chunk -> ids.addAll(userStorage.addAll(chunk)));
+
+        afterCommit(() -> imported.forEach(user -> loginIndex.put(user.getId(), user.getLogin())));
+        log.info("Импортировано пользователей: {}", ids.size());
+        return new BulkResult(ids.size(), ids);
+    }
+
+    @Transactional
+    public BulkResult importLikes(Iterator<FilmLike> likes) {
+        List<FilmLike> requested = readAll(likes, this::validateBean);
+        requireExisting("Фильмы", requested.stream().map(FilmLike::getFilmId).collect(Collectors.toSet()),
+                filmStorage::findExistingIds);
+        requireExisting("Пользователи", requested.stream().map(FilmLike::getUserId).collect(Collectors.toSet()),
+                userStorage::findExistingIds);
+
+        if (likeWriteBehind != null) {
+            // Импорт пишет в БД напрямую: сбрасываем отложенные операции, чтобы не затереть их,
+            // и не принимаем новые, пока изменения импорта не попадут в индексы
+            likeWriteBehind.suspend();
+            afterCompletion(likeWriteBehind::resume);
+        }
+        List<FilmLike> added = new ArrayList<>();
+        forEachChunk(requested, chunk -> added.addAll(inserted(chunk, filmStorage.addLikes(chunk))));
+
+        afterCommit(() -> {
+            // Лайк, поставленный без отложенной записи во время импорта, уже может быть в индексе —
+            // счётчик увеличивается только для пар, новых для индекса
+            int indexed = 0;
+            for (FilmLike like : added) {
+                if (leaderboard.addLike(like.getFilmId(),
+                        () -> likesIndex.addLikeIfAbsent(like.getFilmId(), like.getUserId(), () -> { }))) {
+                    indexed++;
+                }
+            }
+            versions.invalidateAll();
+            activityMetrics.likesAdded(indexed);
+        });
+        log.info("Импортировано лайков: {}", added.size());
+        return new BulkResult(added.size(), List.of());
+    }
+
+    @Transactional
+    public BulkResult importFriendships(Iterator<Friendship> friendships) {
+        List<Friendship> requested = readAll(friendships, (friendship, position) -> {
+            validateBean(friendship, position);
+            if (friendship.getUserId() == friendship.getFriendId()) {
+                throw new ValidationException("Запись #" + position + ": пользователь не может дружить сам с собой");
+            }
+        });
+        Set<Integer> userIds = new HashSet<>();
+        requested.forEach(friendship -> {
+            userIds.add(friendship.getUserId());
+            userIds.add(friendship.getFriendId());
+        });
+        requireExisting("Пользователи", userIds, userStorage::findExistingIds);
+
+        List<Friendship> added = new ArrayList<>();
+        forEachChunk(requested, chunk -> added.addAll(inserted(chunk, userStorage.addFriendships(chunk))));
+
+        afterCommit(() -> {
+            added.forEach(friendship ->
+                    friendshipGraph.addFriend(friendship.getUserId(), friendship.getFriendId(), () -> true));
+            // После массовой загрузки точечная инвалидация дороже полного сброса
+            friendSuggestions.clear();
+            versions.invalidateAll();
+            activityMetrics.friendshipsAdded(added.size());
+        });
+        log.info("Импортировано связей дружбы: {}", added.size());
+        return new BulkResult(added.size(), List.of());
+    }
+
+    // Читает и проверяет все записи до первой записи в хранилище
+    private <T> List<T> readAll(Iterator<T> items, ObjIntConsumer<T> validation) {
+        List<T> result = new ArrayList<>();
+        while (items.hasNext()) {
+            T item = items.next();
+            validation.accept(item, result.size() + 1);
+            result.add(item);
+        }
+        return result;
+    }
+
+    private <T> void forEachChunk(List<T> items, Consumer<List<T>> writer) {
+        for (int from = 0; from < items.size(); from += chunkSize) {
+            writer.accept(items.subList(from, Math.min(from + chunkSize, items.size())));
+        }
+    }
+
+    // Записи, которых раньше не было
+    private static <T> List<T> inserted(List<T> chunk, boolean[] inserted) {
+        List<T> added = new ArrayList<>();
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i]) {
+                added.add(chunk.get(i));
+            }
+        }
+        return added;
+    }
+
+    // Справочники проверяются по кэшу в памяти, без запросов к БД
+    private void validateReferences(Film film, int position) {
+        if (mpaStorage.findById(film.getMpa().getId()).isEmpty()) {
+            throw new NotFoundException("Запись #" + position + ": рейтинг MPA с id = "
+                    + film.getMpa().getId() + " не найден");
+        }
+        for (Genre genre : film.getGenres()) {
+            if (genreStorage.findById(genre.getId()).isEmpty()) {
+                throw new NotFoundException("Запись #" + position + ": жанр с id = " + genre.getId() + " не найден");
+            }
+        }
+    }
+
+    // Существование проверяется порциями, чтобы не строить запрос с огромным списком IN
+    private void requireExisting(String entity, Set<Integer> requested,
+                                 Function<Collection<Integer>, Set<Integer>> finder) {
+        List<Integer> ids = new ArrayList<>(requested);
+        Set<Integer> missing = new TreeSet<>();
+        forEachChunk(ids, chunk -> {
+            Set<Integer> existing = finder.apply(chunk);
+            chunk.stream().filter(id -> !existing.contains(id)).forEach(missing::add);
+        });
+        if (!missing.isEmpty()) {
+            throw new NotFoundException(entity + " с id " + missing + " не найдены");
+        }
+    }
+
+    private <T> void validateBean(T item, int position) {
+        if (item == null) {
+            throw new ValidationException("Запись #" + position + " пуста");
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            String errors = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            throw new ValidationException("Запись #" + position + ": " + errors);
+        }
+    }
+
+    // Изменения в памяти применяем только после успешного коммита
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Выполняется и после коммита, и после отката
+    private void afterCompletion(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.genre.CachedGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.CachedMpaStorage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчики версий для ETag: увеличиваются после каждого изменения, которое видно в ответе.
+// Тег строится только из счётчиков, поэтому 304 отдаётся до обращения к хранилищу и сериализации.
+// В тег входит момент запуска: после перезапуска счётчики начинаются заново, но теги не совпадают со старыми
+@Component
+@RequiredArgsConstructor
+public class EntityVersions {
+
+    private final CachedGenreStorage genreStorage;
+    private final CachedMpaStorage mpaStorage;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    // Общее поколение — для массовых изменений, после которых проще сбросить все теги
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong popular = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final Map<Integer, Long> films = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> friends = new ConcurrentHashMap<>();
+
+    // Изменился сам фильм или число его лайков
+    public void filmChanged(int filmId) {
+        films.merge(filmId, 1L, Long::sum);
+        popular.incrementAndGet();
+    }
+
+    // Новый фильм может попасть в список популярных
+    public void filmAdded() {
+        popular.incrementAndGet();
+    }
+
+    // Данные пользователя видны в списках друзей других пользователей
+    public void userChanged() {
+        users.incrementAndGet();
+    }
+
+    public void friendsChanged(int userId) {
+        friends.merge(userId, 1L, Long::sum);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    public String filmTag(int filmId) {
+        return tag(films.getOrDefault(filmId, 0L));
+    }
+
+    public String popularTag() {
+        return tag(popular.get());
+    }
+
+    public String friendsTag(int userId) {
+        return tag(friends.getOrDefault(userId, 0L) + "." + users.get());
+    }
+
+    // Справочники жанров и рейтингов меняются только при перезагрузке кэша (refresh)
+    public String referenceTag() {
+        return tag(genreStorage.getVersion() + "." + mpaStorage.getVersion());
+    }
+
+    private String tag(Object version) {
+        return "\"" + epoch + "-" + generation.get() + "-" + version + "\"";
+    }
+}
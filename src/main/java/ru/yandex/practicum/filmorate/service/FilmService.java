@@ -1,22 +1,33 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.monitoring.ActivityMetrics;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikesIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmRecommendations;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmTitleIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBehind;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,47 +35,85 @@ import java.util.stream.Collectors;
 public class FilmService {
 
     private final FilmStorage filmStorage;
-    private final FilmDbStorage filmDbStorage;
     private final UserStorage userStorage;
     private final MpaStorage mpaStorage;
     private final GenreStorage genreStorage;
+    private final FilmLeaderboard leaderboard;
+    private final FilmLikesIndex likesIndex;
+    private final FilmRecommendations recommendations;
+    private final FilmSearchIndex searchIndex;
+    private final FilmTitleIndex titleIndex;
+    private final FilmCache filmCache;
+    private final ActivityMetrics activityMetrics;
+    private final EntityVersions versions;
+    // null, если отложенная запись лайков выключена
+    private final LikeWriteBehind likeWriteBehind;
 
     private static final LocalDate MIN_RELEASE_DATE = LocalDate.of(1895, 12, 28);
 
-    public FilmService(@Qualifier("filmDbStorage") FilmStorage filmStorage,
-                       FilmDbStorage filmDbStorage,
-                       @Qualifier("userDbStorage") UserStorage userStorage,
+    public FilmService(FilmStorage filmStorage,
+                       UserStorage userStorage,
                        MpaStorage mpaStorage,
-                       GenreStorage genreStorage) {
+                       GenreStorage genreStorage,
+                       FilmLeaderboard leaderboard,
+                       FilmLikesIndex likesIndex,
+                       FilmRecommendations recommendations,
+                       FilmSearchIndex searchIndex,
+                       FilmTitleIndex titleIndex,
+                       FilmCache filmCache,
+                       ActivityMetrics activityMetrics,
+                       EntityVersions versions,
+                       ObjectProvider<LikeWriteBehind> likeWriteBehind) {
         this.filmStorage = filmStorage;
-        this.filmDbStorage = filmDbStorage;
         this.userStorage = userStorage;
         this.mpaStorage = mpaStorage;
         this.genreStorage = genreStorage;
+        this.leaderboard = leaderboard;
+        this.likesIndex = likesIndex;
+        this.recommendations = recommendations;
+        this.searchIndex = searchIndex;
+        this.titleIndex = titleIndex;
+        this.filmCache = filmCache;
+        this.activityMetrics = activityMetrics;
+        this.versions = versions;
+        this.likeWriteBehind = likeWriteBehind.getIfAvailable();
     }
 
     public Film add(Film film) {
         validateFilm(film);
         validateMpa(film);
         validateGenres(film);
-        return filmStorage.add(film);
+        Film added = filmStorage.add(film);
+        leaderboard.register(added.getId());
+        searchIndex.index(added.getId(), added.getName(), added.getDescription());
+        titleIndex.put(added.getId(), added.getName());
+        versions.filmAdded();
+        return added;
     }
 
     public Film update(Film film) {
         validateFilm(film);
         validateMpa(film);
         validateGenres(film);
-        return filmStorage.findById(film.getId())
+        Film updated = findById(film.getId())
                 .map(existing -> filmStorage.update(film))
                 .orElseThrow(() -> new NotFoundException("Фильм с id = " + film.getId() + " не найден"));
+        filmCache.invalidate(film.getId());
+        versions.filmChanged(film.getId());
+        searchIndex.index(updated.getId(), updated.getName(), updated.getDescription());
+        titleIndex.put(updated.getId(), updated.getName());
+        return withLikes(updated);
     }
 
-    public List<Film> getAll() {
-        return filmStorage.getAll();
+    @Transactional(readOnly = true)
+    public List<Film> getPage(int afterId, int limit) {
+        return withLikes(filmStorage.getPage(afterId, limit));
     }
 
+    @Transactional(readOnly = true)
     public Film getById(int id) {
-        return filmStorage.findById(id)
+        return findById(id)
+                .map(this::withLikes)
                 .orElseThrow(() -> new NotFoundException("Фильм с id = " + id + " не найден"));
     }
 
@@ -73,7 +122,15 @@ public class FilmService {
         User user = userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
 
-        filmDbStorage.addLike(film, user);
+        BooleanSupplier write = likeWriteBehind == null
+                ? () -> likesIndex.addLike(filmId, userId, () -> filmStorage.addLike(film, user))
+                : () -> likesIndex.addLikeIfAbsent(filmId, userId, () -> likeWriteBehind.enqueue(filmId, userId, true));
+        if (likeWriteBehind == null
+                ? leaderboard.addLike(filmId, write)
+                : likeWriteBehind.whileAccepting(() -> leaderboard.addLike(filmId, write))) {
+            versions.filmChanged(filmId);
+            activityMetrics.likesAdded(1);
+        }
         log.debug("Лайк добавлен: {} → {}", user.getLogin(), film.getName());
     }
 
@@ -82,15 +139,82 @@ public class FilmService {
         User user = userStorage.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
 
-        filmDbStorage.removeLike(film, user);
+        BooleanSupplier write = likeWriteBehind == null
+                ? () -> likesIndex.removeLike(filmId, userId, () -> filmStorage.removeLike(film, user))
+                : () -> likesIndex.removeLikeIfPresent(filmId, userId,
+                        () -> likeWriteBehind.enqueue(filmId, userId, false));
+        if (likeWriteBehind == null
+                ? leaderboard.removeLike(filmId, write)
+                : likeWriteBehind.whileAccepting(() -> leaderboard.removeLike(filmId, write))) {
+            versions.filmChanged(filmId);
+            activityMetrics.likeRemoved();
+        }
         log.debug("Лайк удалён: {} → {}", user.getLogin(), film.getName());
     }
 
+    @Transactional(readOnly = true)
     public List<Film> getPopular(int count) {
-        return filmStorage.getPopular(count);
+        // Порядок берём из рейтинга в памяти, сами фильмы — из кэша, недостающие одним запросом
+        return withLikes(filmCache.getAll(leaderboard.top(count), filmStorage::findByIds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Film> getRecommendations(int userId, int limit) {
+        if (limit <= 0 || limit > FilmRecommendations.MAX_RECOMMENDATIONS) {
+            throw new ValidationException("Параметр limit должен быть от 1 до "
+                    + FilmRecommendations.MAX_RECOMMENDATIONS);
+        }
+        userStorage.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Пользователь с id = " + userId + " не найден"));
+
+        int[] filmIds = recommendations.recommend(userId, limit);
+        return withLikes(filmCache.getAll(Arrays.stream(filmIds).boxed().toList(), filmStorage::findByIds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Film> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Параметр q не должен быть пустым");
+        }
+        if (limit <= 0 || limit > FilmSearchIndex.MAX_RESULTS) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + FilmSearchIndex.MAX_RESULTS);
+        }
+
+        // Порядок и id берём из индекса в памяти, сами фильмы — из кэша
+        int[] filmIds = searchIndex.search(query, limit);
+        return withLikes(filmCache.getAll(Arrays.stream(filmIds).boxed().toList(), filmStorage::findByIds));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Film> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("Параметр prefix не должен быть пустым");
+        }
+        if (limit <= 0 || limit > FilmTitleIndex.MAX_SUGGESTIONS) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + FilmTitleIndex.MAX_SUGGESTIONS);
+        }
+
+        int[] filmIds = titleIndex.complete(prefix, limit);
+        return withLikes(filmCache.getAll(Arrays.stream(filmIds).boxed().toList(), filmStorage::findByIds));
     }
 
-    private void validateFilm(Film film) {
+    // Число лайков берём из рейтинга в памяти: он обновляется сразу (в том числе при отложенной записи),
+    // а закэшированные фильмы не приходится сбрасывать на каждый лайк
+    private Film withLikes(Film film) {
+        film.setLikesCount(leaderboard.getLikes(film.getId()));
+        return film;
+    }
+
+    private List<Film> withLikes(List<Film> films) {
+        films.forEach(this::withLikes);
+        return films;
+    }
+
+    private Optional<Film> findById(int id) {
+        return filmCache.get(id, filmStorage::findById);
+    }
+
+    void validateFilm(Film film) {
         if (film.getReleaseDate() != null && film.getReleaseDate().isBefore(MIN_RELEASE_DATE)) {
             log.warn("Некорректная дата релиза: {}", film.getReleaseDate());
             throw new ValidationException("Дата релиза не может быть раньше 28 декабря 1895 года");
@@ -102,7 +226,7 @@ public class FilmService {
             throw new ValidationException("Рейтинг MPA обязателен");
         }
 
-        // Проверяем существование MPA в БД
+        // Проверяем существование MPA по справочнику в памяти
         mpaStorage.findById(film.getMpa().getId())
                 .orElseThrow(() -> new NotFoundException("Рейтинг MPA с id = " + film.getMpa().getId() + " не найден"));
     }
@@ -122,19 +246,11 @@ public class FilmService {
                 .map(Genre::getId)
                 .collect(Collectors.toSet());
 
-        List<Genre> existingGenres = genreStorage.getAll().stream()
-                .filter(genre -> genreIds.contains(genre.getId()))
-                .toList();
-
-        if (existingGenres.size() != genreIds.size()) {
-            Set<Integer> existingIds = existingGenres.stream()
-                    .map(Genre::getId)
-                    .collect(Collectors.toSet());
-
-            Set<Integer> missingIds = genreIds.stream()
-                    .filter(id -> !existingIds.contains(id))
-                    .collect(Collectors.toSet());
+        Set<Integer> missingIds = genreIds.stream()
+                .filter(id -> genreStorage.findById(id).isEmpty())
+                .collect(Collectors.toSet());
 
+        if (!missingIds.isEmpty()) {
             throw new NotFoundException("Жанры с id " + missingIds + " не найдены");
         }
     }
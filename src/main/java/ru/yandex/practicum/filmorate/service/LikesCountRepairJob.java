@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+// Сверка films.likes_count с film_likes: при старте (счётчик мог только что появиться в старой базе)
+// и по расписанию filmorate.likes-count.repair-cron («-» отключает плановый запуск)
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LikesCountRepairJob {
+
+    private final FilmStorage filmStorage;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        repair();
+    }
+
+    @Scheduled(cron = "${filmorate.likes-count.repair-cron:0 30 4 * * *}")
+    public void repair() {
+        int repaired = filmStorage.repairLikeCounts();
+        if (repaired > 0) {
+            log.warn("Счётчик лайков исправлен у {} фильмов", repaired);
+        } else {
+            log.debug("Счётчики лайков совпадают с film_likes");
+        }
+    }
+}
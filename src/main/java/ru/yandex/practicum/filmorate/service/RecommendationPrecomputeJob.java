@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmRecommendations;
+
+// Периодический пересчёт рекомендаций (filmorate.recommendations.precompute=true).
+// Между запусками рекомендации могут отставать от лайков на интервал пересчёта
+@Component
+@ConditionalOnProperty(name = "filmorate.recommendations.precompute", havingValue = "true")
+@RequiredArgsConstructor
+public class RecommendationPrecomputeJob {
+
+    private final FilmRecommendations recommendations;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        recommendations.precomputeAll();
+    }
+
+    @Scheduled(fixedDelayString = "${filmorate.recommendations.precompute-interval:PT10M}",
+            initialDelayString = "${filmorate.recommendations.precompute-interval:PT10M}")
+    public void precompute() {
+        recommendations.precomputeAll();
+    }
+}
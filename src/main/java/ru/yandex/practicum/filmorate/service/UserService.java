@@ -1,14 +1,18 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
-import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.monitoring.ActivityMetrics;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserLoginIndex;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Service
@@ -16,28 +20,35 @@ import java.util.List;
 public class UserService {
 
     private final UserStorage userStorage;
-    private final UserDbStorage userDbStorage;
-
-    public UserService(@Qualifier("userDbStorage") UserStorage userStorage,
-                       UserDbStorage userDbStorage) {
+    private final FriendshipGraph friendshipGraph;
+    private final FriendSuggestions friendSuggestions;
+    private final UserLoginIndex loginIndex;
+    private final ActivityMetrics activityMetrics;
+    private final EntityVersions versions;
+
+    public UserService(UserStorage userStorage,
+                       FriendshipGraph friendshipGraph,
+                       FriendSuggestions friendSuggestions,
+                       UserLoginIndex loginIndex,
+                       ActivityMetrics activityMetrics,
+                       EntityVersions versions) {
         this.userStorage = userStorage;
-        this.userDbStorage = userDbStorage;
+        this.friendshipGraph = friendshipGraph;
+        this.friendSuggestions = friendSuggestions;
+        this.loginIndex = loginIndex;
+        this.activityMetrics = activityMetrics;
+        this.versions = versions;
     }
 
     public User add(User user) {
-        if (user.getLogin() == null || user.getLogin().isBlank()) {
-            log.warn("Попытка создать пользователя без логина");
-            throw new ValidationException("Логин не может быть пустым");
-        }
-        if (user.getName() == null || user.getName().isBlank()) {
-            user.setName(user.getLogin());
-            log.debug("Имя пустое — установлено как логин: {}", user.getLogin());
-        }
-        return userStorage.add(user);
+        prepareNewUser(user);
+        User added = userStorage.add(user);
+        loginIndex.put(added.getId(), added.getLogin());
+        return added;
     }
 
     public User update(User user) {
-        return userStorage.findById(user.getId())
+        User updated = userStorage.findById(user.getId())
                 .map(existing -> {
                     if (user.getEmail() != null && !user.getEmail().isBlank()) {
                         existing.setEmail(user.getEmail());
@@ -54,12 +65,22 @@ public class UserService {
                     return userStorage.update(existing);
                 })
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + user.getId() + " не найден"));
+        loginIndex.put(updated.getId(), updated.getLogin());
+        versions.userChanged();
+        return updated;
     }
 
+    @Transactional(readOnly = true)
     public List<User> getAll() {
         return userStorage.getAll();
     }
 
+    @Transactional(readOnly = true)
+    public List<User> getPage(int afterId, int limit) {
+        return userStorage.getPage(afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
     public User getById(int id) {
         return userStorage.findById(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден"));
@@ -71,7 +92,11 @@ public class UserService {
         getById(friendId);
 
         // Добавляем одностороннюю дружбу (согласно новым требованиям)
-        userDbStorage.addFriend(userId, friendId);
+        if (friendshipGraph.addFriend(userId, friendId, () -> userStorage.addFriend(userId, friendId))) {
+            friendSuggestions.invalidate(userId);
+            versions.friendsChanged(userId);
+            activityMetrics.friendshipsAdded(1);
+        }
         log.debug("Дружба добавлена: {} → {}", userId, friendId);
     }
 
@@ -80,22 +105,72 @@ public class UserService {
         getById(userId);
         getById(friendId);
 
-        userDbStorage.removeFriend(userId, friendId);
+        if (friendshipGraph.removeFriend(userId, friendId, () -> userStorage.removeFriend(userId, friendId))) {
+            friendSuggestions.invalidate(userId);
+            versions.friendsChanged(userId);
+            activityMetrics.friendshipRemoved();
+        }
         log.debug("Дружба удалена: {} → {}", userId, friendId);
     }
 
+    @Transactional(readOnly = true)
     public List<User> getFriends(int userId) {
         // Проверяем существование пользователя
         getById(userId);
 
-        return userDbStorage.getFriends(userId);
+        return userStorage.getFriends(userId);
     }
 
+    @Transactional(readOnly = true)
+    public List<User> getFriendsPage(int userId, int afterId, int limit) {
+        getById(userId);
+
+        return userStorage.getFriendsPage(userId, afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
     public List<User> getCommonFriends(int userId, int otherId) {
         // Проверяем существование пользователей
         getById(userId);
         getById(otherId);
 
-        return userStorage.getCommonFriends(userId, otherId);
+        // Пересечение считается по графу в памяти, пользователи загружаются одним запросом
+        int[] commonIds = friendshipGraph.getCommonFriends(userId, otherId);
+        return userStorage.findByIds(Arrays.stream(commonIds).boxed().toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> getFriendSuggestions(int userId, int limit) {
+        if (limit <= 0 || limit > FriendSuggestions.MAX_SUGGESTIONS) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + FriendSuggestions.MAX_SUGGESTIONS);
+        }
+        getById(userId);
+
+        int[] suggestedIds = friendSuggestions.suggest(userId, limit);
+        return userStorage.findByIds(Arrays.stream(suggestedIds).boxed().toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<User> autocomplete(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("Параметр prefix не должен быть пустым");
+        }
+        if (limit <= 0 || limit > UserLoginIndex.MAX_SUGGESTIONS) {
+            throw new ValidationException("Параметр limit должен быть от 1 до " + UserLoginIndex.MAX_SUGGESTIONS);
+        }
+
+        int[] userIds = loginIndex.complete(prefix, limit);
+        return userStorage.findByIds(Arrays.stream(userIds).boxed().toList());
+    }
+
+    void prepareNewUser(User user) {
+        if (user.getLogin() == null || user.getLogin().isBlank()) {
+            log.warn("Попытка создать пользователя без логина");
+            throw new ValidationException("Логин не может быть пустым");
+        }
+        if (user.getName() == null || user.getName().isBlank()) {
+            user.setName(user.getLogin());
+            log.debug("Имя пустое — установлено как логин: {}", user.getLogin());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+// Индекс для подсказок по префиксу: отсортированная карта «нормализованный текст → id».
+// Все строки с одним префиксом лежат в ней подряд, поэтому поиск — это обход одного диапазона ключей.
+// Под префикс из одной-двух букв попадает почти весь каталог, поэтому для них диапазон обходится
+// не на каждое нажатие клавиши, а раз в CANDIDATES_TTL: запоминаются CANDIDATES самых популярных id,
+// и запрос ранжирует по текущей популярности только их. Чтение идёт без блокировок, изменения сериализуются
+public class PrefixIndex {
+
+    // Разделитель текста и id в ключе: меньше любого символа текста, поэтому не нарушает порядок префиксов
+    private static final char SEPARATOR = '\u0000';
+
+    // Префиксы не длиннее этого ранжируются по запомненному набору кандидатов
+    static final int SHORT_PREFIX_LENGTH = 2;
+    // Размер набора кандидатов: с запасом больше предела подсказок, чтобы рост популярности
+    // внутри набора сразу менял порядок
+    static final int CANDIDATES = 200;
+    // Как долго набор кандидатов живёт без обхода диапазона: за это время в подсказки короткого
+    // префикса не попадёт id, набравший популярность вне набора
+    private static final long CANDIDATES_TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final boolean wordPrefixes;
+
+    private final ConcurrentSkipListMap<String, Integer> entries = new ConcurrentSkipListMap<>();
+    // Ключи каждого id — чтобы при обновлении убрать старые строки
+    private final Map<Integer, List<String>> keysById = new ConcurrentHashMap<>();
+    // Короткий префикс → кандидаты по популярности на момент обхода
+    private final Map<String, Candidates> shortPrefixCandidates = new ConcurrentHashMap<>();
+    // Счётчик изменений: набор, собранный во время изменения, не запоминается
+    private long modifications;
+
+    // wordPrefixes: искать не только с начала текста, но и с начала каждого слова
+    public PrefixIndex(boolean wordPrefixes) {
+        this.wordPrefixes = wordPrefixes;
+    }
+
+    public synchronized void rebuild(Map<Integer, String> texts) {
+        modifications++;
+        entries.clear();
+        keysById.clear();
+        shortPrefixCandidates.clear();
+        texts.forEach(this::add);
+    }
+
+    // Добавляет текст или заменяет прежний текст того же id
+    public synchronized void put(int id, String text) {
+        modifications++;
+        List<String> previous = keysById.remove(id);
+        if (previous != null) {
+            previous.forEach(entries::remove);
+            previous.forEach(this::invalidateShortPrefixes);
+        }
+        add(id, text);
+        List<String> added = keysById.get(id);
+        if (added != null) {
+            added.forEach(this::invalidateShortPrefixes);
+        }
+    }
+
+    public int size() {
+        return keysById.size();
+    }
+
+    // До limit id с текстом на этот префикс, по убыванию popularity, при равенстве — по возрастанию id
+    public int[] complete(String prefix, int limit, IntUnaryOperator popularity) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty()) {
+            return SortedIntArrays.EMPTY;
+        }
+
+        if (normalized.length() <= SHORT_PREFIX_LENGTH && limit <= CANDIDATES) {
+            return top(shortPrefixCandidates(normalized, popularity), limit, popularity);
+        }
+        return top(range(normalized), limit, popularity);
+    }
+
+    // Нижний регистр, ё → е, слова через один пробел
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        for (String word : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                if (!normalized.isEmpty()) {
+                    normalized.append(' ');
+                }
+                normalized.append(word);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private Iterable<Integer> range(String normalized) {
+        return entries.subMap(normalized, normalized + Character.MAX_VALUE).values();
+    }
+
+    private List<Integer> shortPrefixCandidates(String normalized, IntUnaryOperator popularity) {
+        Candidates candidates = shortPrefixCandidates.get(normalized);
+        long now = System.nanoTime();
+        if (candidates != null && now - candidates.builtAt() < CANDIDATES_TTL_NANOS) {
+            return candidates.ids();
+        }
+        long modificationsBefore;
+        synchronized (this) {
+            modificationsBefore = modifications;
+        }
+        List<Integer> ids = Arrays.stream(top(range(normalized), CANDIDATES, popularity)).boxed().toList();
+        // Под тем же монитором, что и изменения: put либо уже виден по счётчику, либо сбросит набор после
+        synchronized (this) {
+            if (modifications == modificationsBefore) {
+                shortPrefixCandidates.put(normalized, new Candidates(ids, now));
+            }
+        }
+        return ids;
+    }
+
+    // До limit id по убыванию popularity, при равенстве — по возрастанию id
+    private static int[] top(Iterable<Integer> ids, int limit, IntUnaryOperator popularity) {
+        Comparator<int[]> order = Comparator.<int[]>comparingInt(hit -> hit[1])
+                .thenComparing(hit -> hit[0], Comparator.reverseOrder());
+        PriorityQueue<int[]> top = new PriorityQueue<>(order);
+        // При поиске по словам один id может встретиться в диапазоне несколько раз
+        Set<Integer> seen = new HashSet<>();
+        for (int id : ids) {
+            if (!seen.add(id)) {
+                continue;
+            }
+            top.add(new int[]{id, popularity.applyAsInt(id)});
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll()[0];
+        }
+        return result;
+    }
+
+    // Текст ключа мог попасть в кандидаты любого своего короткого префикса
+    private void invalidateShortPrefixes(String key) {
+        int textLength = key.indexOf(SEPARATOR);
+        for (int length = 1; length <= Math.min(SHORT_PREFIX_LENGTH, textLength); length++) {
+            shortPrefixCandidates.remove(key.substring(0, length));
+        }
+    }
+
+    private void add(int id, String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized + SEPARATOR + id);
+        if (wordPrefixes) {
+            for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+                keys.add(normalized.substring(i + 1) + SEPARATOR + id);
+            }
+        }
+        keys.forEach(key -> entries.put(key, id));
+        keysById.put(id, keys);
+    }
+
+    private record Candidates(List<Integer> ids, long builtAt) {
+    }
+}
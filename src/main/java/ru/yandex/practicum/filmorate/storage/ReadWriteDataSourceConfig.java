@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Два пула к одной базе: чтение не отнимает соединения у записи и наоборот.
+// Транзакции @Transactional(readOnly = true) получают соединение из пула filmorate-read,
+// всё остальное (запись и вызовы вне транзакции) — из filmorate-write.
+// Соединение берётся лениво, когда признак readOnly транзакции уже известен.
+// Размеры пулов — filmorate.datasource.{write,read}.hikari.*, метрики — hikaricp_*{pool="..."}
+@Configuration(proxyBeanMethods = false)
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("filmorate.datasource.write.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("filmorate-write");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("filmorate.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("filmorate-read");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+}
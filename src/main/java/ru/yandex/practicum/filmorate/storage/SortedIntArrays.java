@@ -0,0 +1,148 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Операции над отсортированными массивами id для индексов связей в памяти.
+// Массивы считаются неизменяемыми: insert/remove возвращают новую копию
+public final class SortedIntArrays {
+
+    public static final int[] EMPTY = new int[0];
+
+    private SortedIntArrays() {
+    }
+
+    // null считается пустым массивом — удобно для Map.compute
+    public static int[] insert(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        position = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        updated[position] = id;
+        System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+        return updated;
+    }
+
+    // Для Map.compute: пустой массив превращается в null, чтобы ключ удалялся из индекса
+    public static int[] removeOrNull(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        return updated;
+    }
+
+    public static boolean contains(int[] ids, int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    // Пересечение слиянием двух отсортированных массивов, результат тоже отсортирован
+    public static int[] intersect(int[] first, int[] second) {
+        int[] common = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(common, count);
+    }
+
+    // Объединение слиянием без повторов, результат тоже отсортирован
+    public static int[] union(int[] first, int[] second) {
+        if (first.length == 0) {
+            return second;
+        }
+        if (second.length == 0) {
+            return first;
+        }
+        int[] merged = new int[first.length + second.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length || j < second.length) {
+            if (j == second.length || i < first.length && first[i] < second[j]) {
+                merged[count++] = first[i++];
+            } else if (i == first.length || first[i] > second[j]) {
+                merged[count++] = second[j++];
+            } else {
+                merged[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    // Обратный индекс: для каждого значения — отсортированный массив ключей, где оно встречается
+    public static Map<Integer, int[]> invert(Map<Integer, int[]> adjacency) {
+        Map<Integer, Integer> sizes = new HashMap<>();
+        adjacency.values().forEach(ids -> {
+            for (int id : ids) {
+                sizes.merge(id, 1, Integer::sum);
+            }
+        });
+        Map<Integer, int[]> inverted = new HashMap<>();
+        sizes.forEach((id, size) -> inverted.put(id, new int[size]));
+        Map<Integer, Integer> filled = new HashMap<>();
+        // Обходим ключи по возрастанию, поэтому обратные массивы получаются отсортированными
+        adjacency.keySet().stream().sorted().forEach(source -> {
+            for (int target : adjacency.get(source)) {
+                int position = filled.merge(target, 1, Integer::sum) - 1;
+                inverted.get(target)[position] = source;
+            }
+        });
+        return inverted;
+    }
+
+    // Собирает пары (ключ, значение) в массивы по ключу. Строки должны идти в порядке ORDER BY ключ, значение
+    public static ResultSetExtractor<Map<Integer, int[]>> groupedBy(String keyColumn, String valueColumn) {
+        return rs -> {
+            Map<Integer, int[]> grouped = new HashMap<>();
+            int currentKey = 0;
+            int[] buffer = new int[16];
+            int size = 0;
+            while (rs.next()) {
+                int key = rs.getInt(keyColumn);
+                if (key != currentKey) {
+                    if (size > 0) {
+                        grouped.put(currentKey, Arrays.copyOf(buffer, size));
+                    }
+                    currentKey = key;
+                    size = 0;
+                }
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, size * 2);
+                }
+                buffer[size++] = rs.getInt(valueColumn);
+            }
+            if (size > 0) {
+                grouped.put(currentKey, Arrays.copyOf(buffer, size));
+            }
+            return grouped;
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.CacheStats;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// Кэш фильмов по id перед FilmStorage.findById: LRU с ограничением размера и временем жизни записи.
+// Хранит неизменяемые копии, наружу всегда отдаёт новую копию.
+@Component
+@Slf4j
+public class FilmCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Увеличивается при каждой инвалидации: загрузка, начатая до неё, не попадёт в кэш
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FilmCache(@Value("${filmorate.film-cache.max-size:10000}") int maxSize,
+                     @Value("${filmorate.film-cache.ttl:PT10M}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Optional<Film> get(int id, IntFunction<Optional<Film>> loader) {
+        Film cached = lookup(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(copyOf(cached));
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        Optional<Film> loaded = loader.apply(id);
+        loaded.ifPresent(film -> store(film, loadGeneration));
+        return loaded;
+    }
+
+    // Берёт найденные в кэше фильмы, остальные загружает одним вызовом; порядок id сохраняется
+    public List<Film> getAll(List<Integer> ids, Function<List<Integer>, List<Film>> loader) {
+        Map<Integer, Film> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Film cached = lookup(id);
+            if (cached != null) {
+                hits.increment();
+                found.put(id, copyOf(cached));
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadGeneration = generation.get();
+            for (Film film : loader.apply(missing)) {
+                store(film, loadGeneration);
+                found.put(film.getId(), film);
+            }
+        }
+
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public void invalidate(int id) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(id);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        synchronized (entries) {
+            return new CacheStats(entries.size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+        }
+    }
+
+    private Film lookup(int id) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.loadedAt() > ttlNanos) {
+                entries.remove(id);
+                evictions.increment();
+                return null;
+            }
+            return entry.film();
+        }
+    }
+
+    private void store(Film film, long loadGeneration) {
+        Film snapshot = copyOf(film);
+        synchronized (entries) {
+            if (generation.get() != loadGeneration) {
+                return;
+            }
+            entries.put(snapshot.getId(), new Entry(snapshot, System.nanoTime()));
+            Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static Film copyOf(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setLikesCount(film.getLikesCount());
+        if (film.getMpa() != null) {
+            Mpa mpa = film.getMpa();
+            copy.setMpa(new Mpa(mpa.getId(), mpa.getName(), mpa.getDescription()));
+        }
+        film.getGenres().forEach(genre -> copy.getGenres().add(new Genre(genre.getId(), genre.getName())));
+        return copy;
+    }
+
+    private record Entry(Film film, long loadedAt) {
+    }
+}
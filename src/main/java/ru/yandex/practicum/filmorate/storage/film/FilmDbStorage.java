@@ -1,29 +1,54 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+import ru.yandex.practicum.filmorate.storage.shard.RelationShards;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Repository("filmDbStorage")
-@RequiredArgsConstructor
+@Profile("!memory")
 @Slf4j
 public class FilmDbStorage implements FilmStorage {
 
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    // null, если film_likes лежит в основной базе
+    private final RelationShards shards;
+    // Не null, если лайки хранятся в журнале связей, а не в film_likes
+    private final RelationLog relationLog;
+
+    public FilmDbStorage(JdbcTemplate jdbcTemplate,
+                         ObjectProvider<RelationShards> shards,
+                         ObjectProvider<RelationLog> relationLog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards.getIfAvailable();
+        this.relationLog = relationLog.getIfAvailable();
+    }
 
     @Override
     public Film add(Film film) {
@@ -51,6 +76,46 @@ public class FilmDbStorage implements FilmStorage {
         return findById(film.getId()).orElse(film);
     }
 
+    // Пакетная вставка фильмов и их жанров; возвращает сгенерированные id в порядке входного списка
+    @Override
+    public List<Integer> addAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_id) VALUES (?, ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Film film = films.get(i);
+                        ps.setString(1, film.getName());
+                        ps.setString(2, film.getDescription());
+                        ps.setDate(3, Date.valueOf(film.getReleaseDate()));
+                        ps.setInt(4, film.getDuration());
+                        ps.setInt(5, film.getMpa().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        List<int[]> filmGenres = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            film.setId(((Number) keys.get(i).values().iterator().next()).intValue());
+            film.getGenres().forEach(genre -> filmGenres.add(new int[]{film.getId(), genre.getId()}));
+        }
+        batchInsertGenres(filmGenres);
+
+        log.debug("Пакетно добавлено фильмов в БД: {}", films.size());
+        return films.stream().map(Film::getId).toList();
+    }
+
     @Override
     public Film update(Film film) {
         String sql = "UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, mpa_id = ? WHERE film_id = ?";
@@ -80,6 +145,60 @@ public class FilmDbStorage implements FilmStorage {
         return films;
     }
 
+    @Override
+    public List<Film> getPage(int afterId, int limit) {
+        String sql = """
+                SELECT f.*, m.mpa_name
+                FROM films f
+                JOIN mpa_rating m ON f.mpa_id = m.mpa_id
+                WHERE f.film_id > ?
+                ORDER BY f.film_id
+                LIMIT ?
+                """;
+        List<Film> films = jdbcTemplate.query(sql, new FilmRowMapper(), afterId, limit);
+        loadGenresForFilms(films);
+        return films;
+    }
+
+    @Override
+    public void forEachFilm(Consumer<Film> action) {
+        // Один проход курсором по фильмам вместе с жанрами: строки одного фильма идут подряд,
+        // поэтому фильм отдаётся, как только начинается следующий
+        String sql = """
+                SELECT f.*, m.mpa_name, g.genre_id, g.genre_name
+                FROM films f
+                JOIN mpa_rating m ON f.mpa_id = m.mpa_id
+                LEFT JOIN film_genre fg ON f.film_id = fg.film_id
+                LEFT JOIN genre g ON fg.genre_id = g.genre_id
+                ORDER BY f.film_id, g.genre_id
+                """;
+        FilmRowMapper rowMapper = new FilmRowMapper();
+        Film[] current = new Film[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            int filmId = rs.getInt("film_id");
+            if (current[0] == null || current[0].getId() != filmId) {
+                if (current[0] != null) {
+                    action.accept(current[0]);
+                }
+                current[0] = rowMapper.mapRow(rs, rs.getRow());
+            }
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current[0].getGenres().add(new Genre(genreId, rs.getString("genre_name")));
+            }
+        });
+
+        if (current[0] != null) {
+            action.accept(current[0]);
+        }
+    }
+
     @Override
     public Optional<Film> findById(int id) {
         String sql = "SELECT f.*, m.mpa_name FROM films f JOIN mpa_rating m ON f.mpa_id = m.mpa_id WHERE f.film_id = ?";
@@ -94,13 +213,14 @@ public class FilmDbStorage implements FilmStorage {
 
     @Override
     public List<Film> getPopular(int count) {
+        if (shards != null) {
+            return getPopularFromShards(count);
+        }
         String sql = """
-                SELECT f.*, m.mpa_name, COUNT(fl.user_id) AS likes_count
+                SELECT f.*, m.mpa_name
                 FROM films f
-                LEFT JOIN mpa_rating m ON f.mpa_id = m.mpa_id
-                LEFT JOIN film_likes fl ON f.film_id = fl.film_id
-                GROUP BY f.film_id
-                ORDER BY likes_count DESC
+                JOIN mpa_rating m ON f.mpa_id = m.mpa_id
+                ORDER BY f.likes_count DESC, f.film_id
                 LIMIT ?
                 """;
         List<Film> films = jdbcTemplate.query(sql, new FilmRowMapper(), count);
@@ -108,23 +228,370 @@ public class FilmDbStorage implements FilmStorage {
         return films;
     }
 
-    public void addLike(Film film, User user) {
-        String sql = "MERGE INTO film_likes (film_id, user_id) KEY (film_id, user_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, film.getId(), user.getId());
+    // films.likes_count меняется мимо транзакций шардов, поэтому рейтинг считается по самим шардам.
+    // Фильм целиком лежит в одном шарде: общий топ — слияние топов шардов в том же порядке, что и по films
+    private List<Film> getPopularFromShards(int count) {
+        String sql = """
+                SELECT film_id, COUNT(*) AS likes_count
+                FROM film_likes
+                GROUP BY film_id
+                ORDER BY likes_count DESC, film_id
+                LIMIT ?
+                """;
+        List<int[]> ranked = new ArrayList<>();
+        shards.scatter(template -> template.query(sql,
+                        (rs, rowNum) -> new int[]{rs.getInt("film_id"), rs.getInt("likes_count")}, count))
+                .forEach(ranked::addAll);
+        ranked.sort(Comparator.<int[]>comparingInt(film -> -film[1]).thenComparingInt(film -> film[0]));
+
+        Map<Integer, Integer> likes = new LinkedHashMap<>();
+        ranked.stream().limit(count).forEach(film -> likes.put(film[0], film[1]));
+        if (likes.size() < count) {
+            // Все фильмы с лайками уже в списке — добираем фильмы без лайков по возрастанию id
+            String rest = "SELECT film_id FROM films ORDER BY film_id LIMIT ?";
+            for (int filmId : jdbcTemplate.queryForList(rest, Integer.class, count + likes.size())) {
+                if (likes.size() == count) {
+                    break;
+                }
+                likes.putIfAbsent(filmId, 0);
+            }
+        }
+
+        List<Film> films = findByIds(new ArrayList<>(likes.keySet()));
+        films.forEach(film -> film.setLikesCount(likes.get(film.getId())));
+        return films;
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String inSql = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = String.format(
+                "SELECT f.*, m.mpa_name FROM films f JOIN mpa_rating m ON f.mpa_id = m.mpa_id WHERE f.film_id IN (%s)",
+                inSql);
+        List<Film> films = jdbcTemplate.query(sql, new FilmRowMapper(), ids.toArray());
+        loadGenresForFilms(films);
+
+        // Возвращаем фильмы в том же порядке, в котором были запрошены id
+        Map<Integer, Film> byId = new HashMap<>();
+        films.forEach(film -> byId.put(film.getId(), film));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Добавляет лайк и увеличивает счётчик в той же транзакции.
+    // Возвращает true, если лайка ещё не было и он действительно записан.
+    @Override
+    @Transactional
+    public boolean addLike(Film film, User user) {
+        String sql = """
+                INSERT INTO film_likes (film_id, user_id)
+                SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM film_likes WHERE film_id = ? AND user_id = ?)
+                """;
+        int inserted;
+        if (relationLog != null) {
+            inserted = relationLog.addLike(film.getId(), user.getId()) ? 1 : 0;
+        } else {
+            try {
+                inserted = likesTemplate(film.getId()).update(sql, film.getId(), user.getId(),
+                        film.getId(), user.getId());
+            } catch (DuplicateKeyException e) {
+                // Параллельный запрос успел поставить тот же лайк
+                inserted = 0;
+            }
+        }
+        if (inserted > 0) {
+            adjustLikeCounts(Map.of(film.getId(), 1));
+        }
         log.debug("Лайк добавлен в БД: фильм {}, пользователь {}", film.getId(), user.getId());
+        return inserted > 0;
+    }
+
+    // Пакетная вставка лайков; для каждой пары возвращает true, если лайк был новым
+    @Override
+    @Transactional
+    public boolean[] addLikes(List<FilmLike> likes) {
+        int[] counts = relationLog != null
+                ? logLikes(likes, relationLog::addLike)
+                : batchByShard(likes, this::insertLikes);
+
+        boolean[] inserted = new boolean[counts.length];
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            inserted[i] = counts[i] > 0;
+            if (inserted[i]) {
+                deltas.merge(likes.get(i).getFilmId(), 1, Integer::sum);
+            }
+        }
+        adjustLikeCounts(deltas);
+        return inserted;
+    }
+
+    private int[] insertLikes(JdbcTemplate template, List<FilmLike> likes) {
+        String sql = """
+                INSERT INTO film_likes (film_id, user_id)
+                SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM film_likes WHERE film_id = ? AND user_id = ?)
+                """;
+        return template.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                FilmLike like = likes.get(i);
+                ps.setInt(1, like.getFilmId());
+                ps.setInt(2, like.getUserId());
+                ps.setInt(3, like.getFilmId());
+                ps.setInt(4, like.getUserId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return likes.size();
+            }
+        });
     }
 
-    public void removeLike(Film film, User user) {
+    // Удаляет лайк и уменьшает счётчик в той же транзакции. Возвращает true, если лайк существовал.
+    @Override
+    @Transactional
+    public boolean removeLike(Film film, User user) {
         String sql = "DELETE FROM film_likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, film.getId(), user.getId());
+        int deleted = relationLog != null
+                ? (relationLog.removeLike(film.getId(), user.getId()) ? 1 : 0)
+                : likesTemplate(film.getId()).update(sql, film.getId(), user.getId());
+        if (deleted > 0) {
+            adjustLikeCounts(Map.of(film.getId(), -1));
+        }
         log.debug("Лайк удалён из БД: фильм {}, пользователь {}", film.getId(), user.getId());
+        return deleted > 0;
+    }
+
+    // Пакетное удаление лайков
+    @Override
+    @Transactional
+    public void removeLikes(List<FilmLike> likes) {
+        int[] counts = relationLog != null
+                ? logLikes(likes, relationLog::removeLike)
+                : batchByShard(likes, this::deleteLikes);
+
+        Map<Integer, Integer> deltas = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                deltas.merge(likes.get(i).getFilmId(), -1, Integer::sum);
+            }
+        }
+        adjustLikeCounts(deltas);
+    }
+
+    private int[] deleteLikes(JdbcTemplate template, List<FilmLike> likes) {
+        String sql = "DELETE FROM film_likes WHERE film_id = ? AND user_id = ?";
+        return template.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, likes.get(i).getFilmId());
+                ps.setInt(2, likes.get(i).getUserId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return likes.size();
+            }
+        });
+    }
+
+    // Журнал связей: для каждой пары 1, если она действительно изменилась, как счётчик строк у пакета JDBC
+    private int[] logLikes(List<FilmLike> likes, BiPredicate<Integer, Integer> change) {
+        int[] counts = new int[likes.size()];
+        for (int i = 0; i < likes.size(); i++) {
+            counts[i] = change.test(likes.get(i).getFilmId(), likes.get(i).getUserId()) ? 1 : 0;
+        }
+        return counts;
+    }
+
+    // Разбивает пакет по шардам и возвращает счётчики строк в исходном порядке
+    private int[] batchByShard(List<FilmLike> likes, BatchWriter writer) {
+        if (shards == null) {
+            return writer.write(jdbcTemplate, likes);
+        }
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int i = 0; i < likes.size(); i++) {
+            positionsByShard.computeIfAbsent(shards.shardOf(likes.get(i).getFilmId()), k -> new ArrayList<>()).add(i);
+        }
+        int[] counts = new int[likes.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            int[] shardCounts = writer.write(shards.forShard(shard), positions.stream().map(likes::get).toList());
+            for (int i = 0; i < positions.size(); i++) {
+                counts[positions.get(i)] = shardCounts[i];
+            }
+        });
+        return counts;
+    }
+
+    // Пересчитывает likes_count по film_likes там, где счётчик разошёлся с данными.
+    // Возвращает число исправленных фильмов
+    @Override
+    @Transactional
+    public int repairLikeCounts() {
+        if (shards == null && relationLog == null) {
+            String sql = """
+                    UPDATE films f
+                    SET likes_count = (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.film_id)
+                    WHERE likes_count <> (SELECT COUNT(*) FROM film_likes fl WHERE fl.film_id = f.film_id)
+                    """;
+            return jdbcTemplate.update(sql);
+        }
+
+        // Лайки в шардах или в журнале связей: сравниваем их счётчики с films и правим разошедшиеся
+        Map<Integer, Integer> actual = getLikeCounts();
+        Map<Integer, Integer> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, likes_count FROM films", rs -> {
+            stored.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+        });
+        List<Map.Entry<Integer, Integer>> changes = actual.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(stored.get(entry.getKey())))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE films SET likes_count = ? WHERE film_id = ?";
+        jdbcTemplate.batchUpdate(sql, changes, changes.size(), (ps, change) -> {
+            ps.setInt(1, change.getValue());
+            ps.setInt(2, change.getKey());
+        });
+        return changes.size();
+    }
+
+    // Изменения счётчиков применяются в порядке id фильма, чтобы параллельные транзакции
+    // блокировали строки films в одном порядке
+    private void adjustLikeCounts(Map<Integer, Integer> deltas) {
+        List<Map.Entry<Integer, Integer>> changes = new TreeMap<>(deltas).entrySet().stream()
+                .filter(change -> change.getValue() != 0)
+                .toList();
+        if (changes.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE films SET likes_count = GREATEST(likes_count + ?, 0) WHERE film_id = ?";
+        jdbcTemplate.batchUpdate(sql, changes, changes.size(), (ps, change) -> {
+            ps.setInt(1, change.getValue());
+            ps.setInt(2, change.getKey());
+        });
+    }
+
+    // Применяет накопленные изменения лайков одной транзакцией (режим отложенной записи).
+    // Обе операции идемпотентны, поэтому повторное применение после сбоя безопасно
+    @Override
+    @Transactional
+    public void applyLikeChanges(List<FilmLike> added, List<FilmLike> removed) {
+        if (!added.isEmpty()) {
+            addLikes(added);
+        }
+        if (!removed.isEmpty()) {
+            removeLikes(removed);
+        }
+        log.debug("Применены отложенные изменения лайков: +{}, -{}", added.size(), removed.size());
+    }
+
+    // Количество лайков для каждого фильма, включая фильмы без лайков.
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        if (shards == null && relationLog == null) {
+            String sql = """
+                    SELECT f.film_id, COUNT(fl.user_id) AS likes_count
+                    FROM films f
+                    LEFT JOIN film_likes fl ON f.film_id = fl.film_id
+                    GROUP BY f.film_id
+                    """;
+            jdbcTemplate.query(sql, rs -> {
+                counts.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+            });
+            return counts;
+        }
+
+        // Фильм целиком лежит в одном шарде, поэтому частичные счётчики не пересекаются
+        jdbcTemplate.query("SELECT film_id FROM films", rs -> {
+            counts.put(rs.getInt("film_id"), 0);
+        });
+        if (relationLog != null) {
+            relationLog.getLikes().forEach((filmId, userIds) ->
+                    counts.computeIfPresent(filmId, (id, zero) -> userIds.length));
+            return counts;
+        }
+        String sql = "SELECT film_id, COUNT(*) AS likes_count FROM film_likes GROUP BY film_id";
+        shards.scatter(template -> template.query(sql, rs -> {
+            Map<Integer, Integer> partial = new HashMap<>();
+            while (rs.next()) {
+                partial.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+            }
+            return partial;
+        })).forEach(partial -> partial.forEach((filmId, count) -> counts.computeIfPresent(filmId, (id, zero) -> count)));
+        return counts;
+    }
+
+    // Названия всех фильмов по id (для индекса подсказок)
+    @Override
+    public Map<Integer, String> getNames() {
+        Map<Integer, String> names = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, name FROM films", rs -> {
+            names.put(rs.getInt("film_id"), rs.getString("name"));
+        });
+        return names;
+    }
+
+    // Id понравившихся фильмов каждого пользователя, отсортированные по возрастанию
+    @Override
+    public Map<Integer, int[]> getLikedFilmIds() {
+        if (relationLog != null) {
+            return SortedIntArrays.invert(relationLog.getLikes());
+        }
+        String sql = "SELECT user_id, film_id FROM film_likes ORDER BY user_id, film_id";
+        Function<JdbcTemplate, Map<Integer, int[]>> query =
+                template -> template.query(sql, SortedIntArrays.groupedBy("user_id", "film_id"));
+        if (shards == null) {
+            return query.apply(jdbcTemplate);
+        }
+
+        // Лайки одного пользователя разбросаны по шардам фильмов: сливаем отсортированные части
+        Map<Integer, int[]> merged = new HashMap<>();
+        shards.scatter(query).forEach(partial ->
+                partial.forEach((userId, filmIds) -> merged.merge(userId, filmIds, SortedIntArrays::union)));
+        return merged;
+    }
+
+    // Какие из переданных id фильмов существуют в БД
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        String inSql = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = String.format("SELECT film_id FROM films WHERE film_id IN (%s)", inSql);
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Integer.class, ids.toArray()));
+    }
+
+    private JdbcTemplate likesTemplate(int filmId) {
+        return shards == null ? jdbcTemplate : shards.forKey(filmId);
     }
 
     private void saveGenres(int filmId, Set<Genre> genres) {
-        String sql = "INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)";
-        for (Genre genre : genres) {
-            jdbcTemplate.update(sql, filmId, genre.getId());
+        batchInsertGenres(genres.stream()
+                .map(genre -> new int[]{filmId, genre.getId()})
+                .toList());
+    }
+
+    private void batchInsertGenres(List<int[]> filmGenres) {
+        if (filmGenres.isEmpty()) {
+            return;
         }
+        String sql = "INSERT INTO film_genre (film_id, genre_id) VALUES (?, ?)";
+        jdbcTemplate.batchUpdate(sql, filmGenres, filmGenres.size(), (ps, pair) -> {
+            ps.setInt(1, pair[0]);
+            ps.setInt(2, pair[1]);
+        });
     }
 
     private void deleteGenres(int filmId) {
@@ -192,6 +659,7 @@ public class FilmDbStorage implements FilmStorage {
             film.setDescription(rs.getString("description"));
             film.setReleaseDate(rs.getDate("release_date").toLocalDate());
             film.setDuration(rs.getInt("duration"));
+            film.setLikesCount(rs.getInt("likes_count"));
 
             Mpa mpa = new Mpa();
             mpa.setId(rs.getInt("mpa_id"));
@@ -201,4 +669,9 @@ public class FilmDbStorage implements FilmStorage {
             return film;
         }
     }
-}
\ No newline at end of file
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        int[] write(JdbcTemplate template, List<FilmLike> likes);
+    }
+}
@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+// Рейтинг популярности фильмов в памяти: счётчики лайков и упорядоченный список для GET /films/popular
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmLeaderboard {
+
+    // Больше лайков — выше; при равенстве первым идёт фильм с меньшим id
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::likes).reversed()
+            .thenComparingInt(Entry::filmId);
+
+    private final FilmStorage filmStorage;
+
+    // Изменения лайков берут read-lock, перестроение из БД — write-lock,
+    // чтобы лайк не был посчитан дважды (и в выборке из БД, и инкрементом)
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+    // Защищает сами структуры рейтинга
+    private final ReadWriteLock rankingLock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Integer> likes = new HashMap<>();
+    private final NavigableSet<Entry> ranking = new TreeSet<>(ORDER);
+
+    @PostConstruct
+    public void rebuild() {
+        changeLock.writeLock().lock();
+        try {
+            Map<Integer, Integer> counts = filmStorage.getLikeCounts();
+            rankingLock.writeLock().lock();
+            try {
+                likes.clear();
+                ranking.clear();
+                counts.forEach(this::put);
+            } finally {
+                rankingLock.writeLock().unlock();
+            }
+            log.info("Рейтинг популярности загружен из БД: {} фильмов", counts.size());
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    // Регистрирует новый фильм с нулём лайков
+    public void register(int filmId) {
+        rankingLock.writeLock().lock();
+        try {
+            if (!likes.containsKey(filmId)) {
+                put(filmId, 0);
+            }
+        } finally {
+            rankingLock.writeLock().unlock();
+        }
+    }
+
+    // Выполняет запись лайка и, если она что-то изменила, увеличивает счётчик
+    public boolean addLike(int filmId, BooleanSupplier write) {
+        return apply(filmId, 1, write);
+    }
+
+    // Выполняет удаление лайка и, если лайк был, уменьшает счётчик
+    public boolean removeLike(int filmId, BooleanSupplier write) {
+        return apply(filmId, -1, write);
+    }
+
+    public List<Integer> top(int count) {
+        rankingLock.readLock().lock();
+        try {
+            List<Integer> ids = new ArrayList<>(Math.min(Math.max(count, 0), ranking.size()));
+            Iterator<Entry> iterator = ranking.iterator();
+            while (ids.size() < count && iterator.hasNext()) {
+                ids.add(iterator.next().filmId());
+            }
+            return ids;
+        } finally {
+            rankingLock.readLock().unlock();
+        }
+    }
+
+    public int getLikes(int filmId) {
+        rankingLock.readLock().lock();
+        try {
+            return likes.getOrDefault(filmId, 0);
+        } finally {
+            rankingLock.readLock().unlock();
+        }
+    }
+
+    private boolean apply(int filmId, int delta, BooleanSupplier write) {
+        changeLock.readLock().lock();
+        try {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            rankingLock.writeLock().lock();
+            try {
+                Integer current = likes.get(filmId);
+                int base = current == null ? 0 : current;
+                if (current != null) {
+                    ranking.remove(new Entry(filmId, current));
+                }
+                put(filmId, Math.max(base + delta, 0));
+            } finally {
+                rankingLock.writeLock().unlock();
+            }
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    private void put(int filmId, int count) {
+        likes.put(filmId, count);
+        ranking.add(new Entry(filmId, count));
+    }
+
+    private record Entry(int filmId, int likes) {
+    }
+}
@@ -0,0 +1,142 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+// Лайки в памяти в виде разреженных множеств: для пользователя — отсортированный массив id фильмов,
+// для фильма — отсортированный массив id пользователей. Массивы подменяются копиями, как в FriendshipGraph
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmLikesIndex {
+
+    private final FilmStorage filmStorage;
+
+    // Изменения берут read-lock, перестроение из БД — write-lock
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, int[]> filmsByUser = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> usersByFilm = new ConcurrentHashMap<>();
+
+    // Для отложенной записи: проверка «есть ли лайк» и его изменение атомарны в пределах пользователя
+    private final Lock[] userLocks = createLocks(64);
+
+    @PostConstruct
+    public void rebuild() {
+        changeLock.writeLock().lock();
+        try {
+            Map<Integer, int[]> loaded = filmStorage.getLikedFilmIds();
+            filmsByUser.clear();
+            filmsByUser.putAll(loaded);
+            usersByFilm.clear();
+            usersByFilm.putAll(SortedIntArrays.invert(loaded));
+            log.info("Индекс лайков загружен из БД: {} пользователей с лайками", loaded.size());
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    // Выполняет запись лайка и, если она что-то изменила, добавляет его в индекс
+    public boolean addLike(int filmId, int userId, BooleanSupplier write) {
+        changeLock.readLock().lock();
+        try {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            filmsByUser.compute(userId, (id, current) -> SortedIntArrays.insert(current, filmId));
+            usersByFilm.compute(filmId, (id, current) -> SortedIntArrays.insert(current, userId));
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    // Выполняет удаление лайка и, если он был, убирает его из индекса
+    public boolean removeLike(int filmId, int userId, BooleanSupplier write) {
+        changeLock.readLock().lock();
+        try {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            filmsByUser.computeIfPresent(userId, (id, current) -> SortedIntArrays.removeOrNull(current, filmId));
+            usersByFilm.computeIfPresent(filmId, (id, current) -> SortedIntArrays.removeOrNull(current, userId));
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    // Вариант для отложенной записи, когда БД не может ответить, изменилось ли что-то:
+    // если лайка нет, выполняет write и добавляет лайк в индекс
+    public boolean addLikeIfAbsent(int filmId, int userId, Runnable write) {
+        return changeIfNeeded(filmId, userId, true, write);
+    }
+
+    // Если лайк есть, выполняет write и убирает лайк из индекса
+    public boolean removeLikeIfPresent(int filmId, int userId, Runnable write) {
+        return changeIfNeeded(filmId, userId, false, write);
+    }
+
+    public boolean hasLike(int filmId, int userId) {
+        return SortedIntArrays.contains(likedFilmsView(userId), filmId);
+    }
+
+    public int[] getLikedFilms(int userId) {
+        return likedFilmsView(userId).clone();
+    }
+
+    public int[] getUsersWithLikes() {
+        return filmsByUser.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    // Массивы без копирования — только для чтения внутри пакета
+    int[] likedFilmsView(int userId) {
+        return filmsByUser.getOrDefault(userId, SortedIntArrays.EMPTY);
+    }
+
+    int[] likersView(int filmId) {
+        return usersByFilm.getOrDefault(filmId, SortedIntArrays.EMPTY);
+    }
+
+    private boolean changeIfNeeded(int filmId, int userId, boolean like, Runnable write) {
+        changeLock.readLock().lock();
+        Lock userLock = userLocks[Math.floorMod(userId, userLocks.length)];
+        userLock.lock();
+        try {
+            if (hasLike(filmId, userId) == like) {
+                return false;
+            }
+            write.run();
+            if (like) {
+                filmsByUser.compute(userId, (id, current) -> SortedIntArrays.insert(current, filmId));
+                usersByFilm.compute(filmId, (id, current) -> SortedIntArrays.insert(current, userId));
+            } else {
+                filmsByUser.computeIfPresent(userId, (id, current) -> SortedIntArrays.removeOrNull(current, filmId));
+                usersByFilm.computeIfPresent(filmId, (id, current) -> SortedIntArrays.removeOrNull(current, userId));
+            }
+            return true;
+        } finally {
+            userLock.unlock();
+            changeLock.readLock().unlock();
+        }
+    }
+
+    private static Lock[] createLocks(int count) {
+        Lock[] locks = new Lock[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
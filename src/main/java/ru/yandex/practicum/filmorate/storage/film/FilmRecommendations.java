@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+// Рекомендации фильмов коллаборативной фильтрацией: ищем пользователей с наибольшим числом
+// общих лайков и предлагаем фильмы, которые понравились им, но ещё не оценены целевым пользователем
+@Component
+@Slf4j
+public class FilmRecommendations {
+
+    public static final int MAX_RECOMMENDATIONS = 100;
+
+    // Сколько фильмов пользователя обрабатывает одна задача fork-join без дальнейшего деления
+    private static final int FILMS_PER_TASK = 32;
+
+    // Больше очков — выше; при равенстве первым идёт меньший id
+    private static final Comparator<Map.Entry<Integer, Integer>> ORDER =
+            Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private final FilmLikesIndex likesIndex;
+    private final int neighbours;
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    // Результаты фонового пересчёта (см. RecommendationPrecomputeJob); пусто, если режим выключен
+    private volatile Map<Integer, int[]> precomputed = Map.of();
+
+    public FilmRecommendations(FilmLikesIndex likesIndex,
+                               @Value("${filmorate.recommendations.neighbours:20}") int neighbours) {
+        this.likesIndex = likesIndex;
+        this.neighbours = neighbours;
+    }
+
+    // Id рекомендуемых фильмов по убыванию суммарной похожести оценивших их пользователей
+    public int[] recommend(int userId, int limit) {
+        int[] ranked = precomputed.get(userId);
+        if (ranked == null) {
+            ranked = compute(userId);
+            return Arrays.copyOf(ranked, Math.min(limit, ranked.length));
+        }
+        // Фильмы, лайкнутые после пересчёта, больше не рекомендуем
+        int[] liked = likesIndex.likedFilmsView(userId);
+        return IntStream.of(ranked)
+                .filter(filmId -> !SortedIntArrays.contains(liked, filmId))
+                .limit(limit)
+                .toArray();
+    }
+
+    // Пересчитывает рекомендации для всех пользователей с лайками; после этого запрос — поиск по словарю
+    public void precomputeAll() {
+        long started = System.nanoTime();
+        int[] users = likesIndex.getUsersWithLikes();
+        Map<Integer, int[]> result = new HashMap<>(users.length * 2);
+        IntStream.of(users).parallel()
+                .mapToObj(userId -> Map.entry(userId, compute(userId)))
+                .toList()
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        precomputed = result;
+        log.info("Рекомендации пересчитаны для {} пользователей за {} мс", users.length,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    int[] compute(int userId) {
+        int[] liked = likesIndex.likedFilmsView(userId);
+        if (liked.length == 0) {
+            return SortedIntArrays.EMPTY;
+        }
+
+        // Пересечение лайков со всеми остальными пользователями считаем через обратный индекс:
+        // каждый, кто лайкнул фильм из списка пользователя, получает +1 к похожести
+        Map<Integer, Integer> overlap = pool.invoke(new OverlapTask(userId, liked, 0, liked.length));
+        List<Map.Entry<Integer, Integer>> nearest = overlap.entrySet().stream()
+                .sorted(ORDER)
+                .limit(neighbours)
+                .toList();
+
+        Map<Integer, Integer> scores = new HashMap<>();
+        for (Map.Entry<Integer, Integer> neighbour : nearest) {
+            for (int filmId : likesIndex.likedFilmsView(neighbour.getKey())) {
+                if (!SortedIntArrays.contains(liked, filmId)) {
+                    scores.merge(filmId, neighbour.getValue(), Integer::sum);
+                }
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(ORDER)
+                .limit(MAX_RECOMMENDATIONS)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    private final class OverlapTask extends RecursiveTask<Map<Integer, Integer>> {
+
+        private final int userId;
+        private final int[] films;
+        private final int from;
+        private final int to;
+
+        private OverlapTask(int userId, int[] films, int from, int to) {
+            this.userId = userId;
+            this.films = films;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<Integer, Integer> compute() {
+            if (to - from <= FILMS_PER_TASK) {
+                Map<Integer, Integer> counts = new HashMap<>();
+                for (int i = from; i < to; i++) {
+                    for (int otherUser : likesIndex.likersView(films[i])) {
+                        if (otherUser != userId) {
+                            counts.merge(otherUser, 1, Integer::sum);
+                        }
+                    }
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            OverlapTask left = new OverlapTask(userId, films, from, middle);
+            left.fork();
+            Map<Integer, Integer> right = new OverlapTask(userId, films, middle, to).compute();
+            Map<Integer, Integer> leftCounts = left.join();
+            // Сливаем меньшую карту в большую
+            Map<Integer, Integer> larger = leftCounts.size() >= right.size() ? leftCounts : right;
+            Map<Integer, Integer> smaller = larger == leftCounts ? right : leftCounts;
+            smaller.forEach((user, count) -> larger.merge(user, count, Integer::sum));
+            return larger;
+        }
+    }
+}
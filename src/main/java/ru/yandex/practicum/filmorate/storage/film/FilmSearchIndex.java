@@ -0,0 +1,153 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Полнотекстовый поиск по названиям и описаниям фильмов: обратный индекс «терм → отсортированный массив id»,
+// отдельно для названий и описаний. Массивы подменяются копиями, поэтому поиск идёт без блокировок
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmSearchIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    // Совпадение в названии важнее совпадения в описании
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    // Популярность лишь подтягивает релевантные фильмы: множитель растёт как логарифм числа лайков
+    private static final double POPULARITY_WEIGHT = 0.25;
+
+    private final FilmStorage filmStorage;
+    private final FilmLeaderboard leaderboard;
+
+    private final Map<String, int[]> nameIndex = new ConcurrentHashMap<>();
+    private final Map<String, int[]> descriptionIndex = new ConcurrentHashMap<>();
+    // Термы каждого фильма — чтобы при обновлении убрать фильм из старых списков
+    private final Map<Integer, Terms> termsByFilm = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        // Фильмы идут по возрастанию id, поэтому списки собираются уже отсортированными,
+        // без копирования массива на каждую вставку
+        Map<String, List<Integer>> names = new HashMap<>();
+        Map<String, List<Integer>> descriptions = new HashMap<>();
+        Map<Integer, Terms> terms = new HashMap<>();
+        filmStorage.forEachFilm(film -> {
+            Terms filmTerms = analyze(film.getName(), film.getDescription());
+            filmTerms.name().forEach(term -> names.computeIfAbsent(term, t -> new ArrayList<>()).add(film.getId()));
+            filmTerms.description().forEach(term ->
+                    descriptions.computeIfAbsent(term, t -> new ArrayList<>()).add(film.getId()));
+            terms.put(film.getId(), filmTerms);
+        });
+
+        nameIndex.clear();
+        descriptionIndex.clear();
+        termsByFilm.clear();
+        names.forEach((term, ids) -> nameIndex.put(term, toArray(ids)));
+        descriptions.forEach((term, ids) -> descriptionIndex.put(term, toArray(ids)));
+        termsByFilm.putAll(terms);
+        log.info("Поисковый индекс загружен из БД: {} фильмов, {} термов",
+                termsByFilm.size(), nameIndex.size() + descriptionIndex.size());
+    }
+
+    // Добавляет фильм или заменяет его прежние термы
+    public synchronized void index(int filmId, String name, String description) {
+        Terms previous = termsByFilm.remove(filmId);
+        if (previous != null) {
+            previous.name().forEach(term -> nameIndex.computeIfPresent(term,
+                    (t, ids) -> SortedIntArrays.removeOrNull(ids, filmId)));
+            previous.description().forEach(term -> descriptionIndex.computeIfPresent(term,
+                    (t, ids) -> SortedIntArrays.removeOrNull(ids, filmId)));
+        }
+        put(filmId, name, description);
+    }
+
+    // Id фильмов, содержащих все термы запроса, по убыванию релевантности с поправкой на популярность
+    public int[] search(String query, int limit) {
+        List<String> terms = TextAnalyzer.terms(query);
+        if (terms.isEmpty()) {
+            return SortedIntArrays.EMPTY;
+        }
+
+        int[][] names = new int[terms.size()][];
+        int[][] descriptions = new int[terms.size()][];
+        int[][] matching = new int[terms.size()][];
+        int[] candidates = null;
+        for (int i = 0; i < terms.size(); i++) {
+            names[i] = nameIndex.getOrDefault(terms.get(i), SortedIntArrays.EMPTY);
+            descriptions[i] = descriptionIndex.getOrDefault(terms.get(i), SortedIntArrays.EMPTY);
+            matching[i] = SortedIntArrays.union(names[i], descriptions[i]);
+            candidates = candidates == null ? matching[i] : SortedIntArrays.intersect(candidates, matching[i]);
+            if (candidates.length == 0) {
+                return SortedIntArrays.EMPTY;
+            }
+        }
+
+        // Редкий терм весит больше частого
+        double total = termsByFilm.size();
+        double[] idf = new double[terms.size()];
+        for (int i = 0; i < terms.size(); i++) {
+            idf[i] = Math.log(1 + total / matching[i].length);
+        }
+
+        Comparator<Hit> order = Comparator.comparingDouble(Hit::score).thenComparing(Hit::filmId,
+                Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(order);
+        for (int filmId : candidates) {
+            double relevance = 0;
+            for (int i = 0; i < terms.size(); i++) {
+                if (SortedIntArrays.contains(names[i], filmId)) {
+                    relevance += NAME_WEIGHT * idf[i];
+                }
+                if (SortedIntArrays.contains(descriptions[i], filmId)) {
+                    relevance += DESCRIPTION_WEIGHT * idf[i];
+                }
+            }
+            double popularity = 1 + POPULARITY_WEIGHT * Math.log1p(leaderboard.getLikes(filmId));
+            top.add(new Hit(filmId, relevance * popularity));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        int[] result = new int[top.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = top.poll().filmId();
+        }
+        return result;
+    }
+
+    private void put(int filmId, String name, String description) {
+        Terms terms = analyze(name, description);
+        terms.name().forEach(term -> nameIndex.compute(term, (t, ids) -> SortedIntArrays.insert(ids, filmId)));
+        terms.description().forEach(term -> descriptionIndex.compute(term,
+                (t, ids) -> SortedIntArrays.insert(ids, filmId)));
+        termsByFilm.put(filmId, terms);
+    }
+
+    private static Terms analyze(String name, String description) {
+        return new Terms(TextAnalyzer.terms(name), TextAnalyzer.terms(description));
+    }
+
+    private static int[] toArray(List<Integer> ids) {
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private record Terms(List<String> name, List<String> description) {
+    }
+
+    private record Hit(int filmId, double score) {
+    }
+}
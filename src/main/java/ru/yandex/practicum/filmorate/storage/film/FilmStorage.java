@@ -1,18 +1,59 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film add(Film film);
 
+    // Возвращает id добавленных фильмов в порядке входного списка
+    List<Integer> addAll(List<Film> films);
+
     Film update(Film film);
 
     List<Film> getAll();
 
+    List<Film> getPage(int afterId, int limit);
+
+    void forEachFilm(Consumer<Film> action);
+
     Optional<Film> findById(int id);
 
+    List<Film> findByIds(List<Integer> ids);
+
     List<Film> getPopular(int count);
-}
\ No newline at end of file
+
+    Set<Integer> findExistingIds(Collection<Integer> ids);
+
+    // true, если лайка ещё не было
+    boolean addLike(Film film, User user);
+
+    // Для каждой пары true, если лайк был новым
+    boolean[] addLikes(List<FilmLike> likes);
+
+    // true, если лайк существовал
+    boolean removeLike(Film film, User user);
+
+    void removeLikes(List<FilmLike> likes);
+
+    void applyLikeChanges(List<FilmLike> added, List<FilmLike> removed);
+
+    // Число исправленных счётчиков лайков
+    int repairLikeCounts();
+
+    // Число лайков каждого фильма, включая фильмы без лайков
+    Map<Integer, Integer> getLikeCounts();
+
+    Map<Integer, String> getNames();
+
+    // Отсортированные id понравившихся фильмов каждого пользователя
+    Map<Integer, int[]> getLikedFilmIds();
+}
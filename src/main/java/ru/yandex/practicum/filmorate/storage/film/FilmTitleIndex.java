@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.PrefixIndex;
+
+// Подсказки по названиям фильмов: префикс ищется с начала любого слова названия,
+// самые популярные по лайкам фильмы идут первыми
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FilmTitleIndex {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final FilmStorage filmStorage;
+    private final FilmLeaderboard leaderboard;
+
+    private final PrefixIndex index = new PrefixIndex(true);
+
+    @PostConstruct
+    public void rebuild() {
+        index.rebuild(filmStorage.getNames());
+        log.info("Индекс названий фильмов загружен из БД: {} фильмов", index.size());
+    }
+
+    public void put(int filmId, String name) {
+        index.put(filmId, name);
+    }
+
+    public int[] complete(String prefix, int limit) {
+        return index.complete(prefix, limit, leaderboard::getLikes);
+    }
+}
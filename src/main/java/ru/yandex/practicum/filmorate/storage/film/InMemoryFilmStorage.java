@@ -0,0 +1,245 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Хранилище фильмов в памяти для профиля memory: тесты и бенчмарки без SQL на горячем пути.
+// Фильмы лежат в упорядоченной по id карте, лайки — отсортированными массивами id пользователей.
+// ConcurrentHashMap.compute блокирует только корзину ключа, поэтому лайки разных фильмов не мешают
+// друг другу, а чтения идут без блокировок. Справочники MPA и жанров по-прежнему берутся из БД
+@Repository
+@Profile("memory")
+@Slf4j
+public class InMemoryFilmStorage implements FilmStorage {
+
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+
+    private final ConcurrentSkipListMap<Integer, Film> films = new ConcurrentSkipListMap<>();
+    // film_id -> отсортированные id поставивших лайк пользователей
+    private final ConcurrentHashMap<Integer, int[]> likes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    public InMemoryFilmStorage(MpaStorage mpaStorage, GenreStorage genreStorage) {
+        this.mpaStorage = mpaStorage;
+        this.genreStorage = genreStorage;
+    }
+
+    @Override
+    public Film add(Film film) {
+        Film stored = resolve(film);
+        film.setId(nextId.incrementAndGet());
+        stored.setId(film.getId());
+        films.put(stored.getId(), stored);
+        log.debug("Фильм добавлен в память: {} (ID: {})", film.getName(), film.getId());
+        return copyOf(stored);
+    }
+
+    @Override
+    public List<Integer> addAll(List<Film> films) {
+        films.forEach(this::add);
+        return films.stream().map(Film::getId).toList();
+    }
+
+    @Override
+    public Film update(Film film) {
+        Film stored = resolve(film);
+        stored.setId(film.getId());
+        if (films.replace(stored.getId(), stored) == null) {
+            return film;
+        }
+        log.debug("Фильм обновлён в памяти: {} (ID: {})", film.getName(), film.getId());
+        return copyOf(stored);
+    }
+
+    @Override
+    public List<Film> getAll() {
+        return films.values().stream().map(this::copyOf).toList();
+    }
+
+    @Override
+    public List<Film> getPage(int afterId, int limit) {
+        return films.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(this::copyOf)
+                .toList();
+    }
+
+    @Override
+    public void forEachFilm(Consumer<Film> action) {
+        films.values().forEach(film -> action.accept(copyOf(film)));
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return Optional.ofNullable(films.get(id)).map(this::copyOf);
+    }
+
+    @Override
+    public List<Film> findByIds(List<Integer> ids) {
+        return ids.stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .map(this::copyOf)
+                .toList();
+    }
+
+    @Override
+    public List<Film> getPopular(int count) {
+        return films.values().stream()
+                .sorted(Comparator.comparingInt((Film film) -> likeCount(film.getId())).reversed()
+                        .thenComparingInt(Film::getId))
+                .limit(count)
+                .map(this::copyOf)
+                .toList();
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        ids.stream().filter(films::containsKey).forEach(existing::add);
+        return existing;
+    }
+
+    @Override
+    public boolean addLike(Film film, User user) {
+        return insertLike(film.getId(), user.getId());
+    }
+
+    @Override
+    public boolean[] addLikes(List<FilmLike> likes) {
+        boolean[] inserted = new boolean[likes.size()];
+        for (int i = 0; i < likes.size(); i++) {
+            inserted[i] = insertLike(likes.get(i).getFilmId(), likes.get(i).getUserId());
+        }
+        return inserted;
+    }
+
+    @Override
+    public boolean removeLike(Film film, User user) {
+        return deleteLike(film.getId(), user.getId());
+    }
+
+    @Override
+    public void removeLikes(List<FilmLike> likes) {
+        likes.forEach(like -> deleteLike(like.getFilmId(), like.getUserId()));
+    }
+
+    @Override
+    public void applyLikeChanges(List<FilmLike> added, List<FilmLike> removed) {
+        addLikes(added);
+        removeLikes(removed);
+    }
+
+    // Счётчик вычисляется из самих лайков и разойтись с ними не может
+    @Override
+    public int repairLikeCounts() {
+        return 0;
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikeCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        films.keySet().forEach(filmId -> counts.put(filmId, likeCount(filmId)));
+        return counts;
+    }
+
+    @Override
+    public Map<Integer, String> getNames() {
+        Map<Integer, String> names = new HashMap<>();
+        films.values().forEach(film -> names.put(film.getId(), film.getName()));
+        return names;
+    }
+
+    @Override
+    public Map<Integer, int[]> getLikedFilmIds() {
+        return SortedIntArrays.invert(likes);
+    }
+
+    private boolean insertLike(int filmId, int userId) {
+        boolean[] changed = {false};
+        likes.compute(filmId, (id, userIds) -> {
+            int[] updated = SortedIntArrays.insert(userIds, userId);
+            changed[0] = updated != userIds;
+            return updated;
+        });
+        return changed[0];
+    }
+
+    private boolean deleteLike(int filmId, int userId) {
+        boolean[] changed = {false};
+        likes.computeIfPresent(filmId, (id, userIds) -> {
+            int[] updated = SortedIntArrays.removeOrNull(userIds, userId);
+            changed[0] = updated != userIds;
+            return updated;
+        });
+        return changed[0];
+    }
+
+    private int likeCount(int filmId) {
+        int[] userIds = likes.get(filmId);
+        return userIds == null ? 0 : userIds.length;
+    }
+
+    // Сохраняемая копия с названиями из справочников, как после чтения из БД; ссылки на
+    // несуществующие MPA и жанры отклоняются так же, как внешними ключами схемы
+    private Film resolve(Film film) {
+        Film stored = new Film();
+        stored.setName(film.getName());
+        stored.setDescription(film.getDescription());
+        stored.setReleaseDate(film.getReleaseDate());
+        stored.setDuration(film.getDuration());
+
+        Mpa mpa = mpaStorage.findById(film.getMpa().getId())
+                .orElseThrow(() -> new DataIntegrityViolationException(
+                        "Рейтинг MPA с id " + film.getMpa().getId() + " не существует"));
+        stored.setMpa(new Mpa(mpa.getId(), mpa.getName(), null));
+
+        film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .sorted()
+                .map(genreId -> genreStorage.findById(genreId)
+                        .orElseThrow(() -> new DataIntegrityViolationException(
+                                "Жанр с id " + genreId + " не существует")))
+                .forEach(genre -> stored.getGenres().add(new Genre(genre.getId(), genre.getName())));
+        return stored;
+    }
+
+    private Film copyOf(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setMpa(new Mpa(film.getMpa().getId(), film.getMpa().getName(), null));
+        film.getGenres().forEach(genre -> copy.getGenres().add(new Genre(genre.getId(), genre.getName())));
+        copy.setLikesCount(likeCount(film.getId()));
+        return copy;
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Журнал операций отложенной записи лайков. Запись — 9 байт: признак операции, id фильма, id пользователя.
+// Перед сбросом в БД текущий журнал дописывается в файл «.flushing», который удаляется после коммита
+final class LikeJournal implements Closeable {
+
+    private static final int RECORD_SIZE = 9;
+    private static final byte LIKE = 1;
+    private static final byte UNLIKE = 0;
+
+    private final Path path;
+    private final Path flushingPath;
+    private final boolean fsync;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel;
+
+    LikeJournal(Path path, boolean fsync) throws IOException {
+        this.path = path;
+        this.flushingPath = path.resolveSibling(path.getFileName() + ".flushing");
+        this.fsync = fsync;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = open();
+    }
+
+    // Операции из несброшенных журналов: для каждой пары (фильм, пользователь) — последнее желаемое состояние
+    Map<Long, Boolean> readPending() throws IOException {
+        Map<Long, Boolean> operations = new LinkedHashMap<>();
+        read(flushingPath, operations);
+        read(path, operations);
+        return operations;
+    }
+
+    void append(int filmId, int userId, boolean like) throws IOException {
+        record.clear();
+        record.put(like ? LIKE : UNLIKE).putInt(filmId).putInt(userId).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        if (fsync) {
+            channel.force(false);
+        }
+    }
+
+    // Переносит текущие записи в «.flushing» и начинает журнал заново
+    void rotate() throws IOException {
+        channel.force(false);
+        try (FileChannel flushing = FileChannel.open(flushingPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.transferTo(0, channel.size(), flushing);
+            flushing.force(false);
+        }
+        channel.truncate(0);
+    }
+
+    // Все записи из «.flushing» применены в БД
+    void committed() throws IOException {
+        Files.deleteIfExists(flushingPath);
+    }
+
+    void clear() throws IOException {
+        channel.truncate(0);
+        Files.deleteIfExists(flushingPath);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private FileChannel open() throws IOException {
+        // READ нужен для transferTo при переключении журнала, а с APPEND он несовместим — дописываем вручную
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        opened.position(opened.size());
+        return opened;
+    }
+
+    private static void read(Path file, Map<Long, Boolean> operations) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        // Неполная последняя запись (обрыв при сбое) отбрасывается
+        while (buffer.remaining() >= RECORD_SIZE) {
+            boolean like = buffer.get() == LIKE;
+            long key = LikeWriteBehind.key(buffer.getInt(), buffer.getInt());
+            operations.remove(key);
+            operations.put(key, like);
+        }
+    }
+}
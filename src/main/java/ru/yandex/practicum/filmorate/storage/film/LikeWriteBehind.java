@@ -0,0 +1,320 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+// Отложенная запись лайков (filmorate.likes.write-behind.enabled=true). Операции копятся в ограниченном
+// буфере, противоположные операции над одной парой (фильм, пользователь) взаимно уничтожаются,
+// буфер сбрасывается в БД одной транзакцией по размеру или по таймеру и при остановке приложения.
+// Решение «изменился ли лайк» принимает FilmLikesIndex, поэтому в буфер попадают только реальные изменения
+@Component
+@ConditionalOnProperty(name = "filmorate.likes.write-behind.enabled", havingValue = "true")
+@Slf4j
+public class LikeWriteBehind {
+
+    // NONE — буфер только в памяти (теряется при аварийном завершении процесса),
+    // JOURNAL — операции пишутся в журнал на диске, FSYNC — журнал синхронизируется на каждой операции
+    public enum Durability { NONE, JOURNAL, FSYNC }
+
+    private final FilmStorage filmStorage;
+    private final FilmLeaderboard leaderboard;
+    private final FilmLikesIndex likesIndex;
+    private final int capacity;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Durability durability;
+    private final Path journalPath;
+
+    // Защищает буфер и журнал: запись операции в журнал и в буфер должна быть атомарной относительно сброса
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // Сбросы выполняются строго по очереди, иначе более новая операция может попасть в БД раньше старой
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    // Изменения лайков идут под чтением, массовый импорт держит запись от сброса буфера до конца своей
+    // транзакции: иначе лайк, поставленный во время импорта, попадёт в БД и в индексы дважды
+    private final ReentrantReadWriteLock importLock = new ReentrantReadWriteLock();
+
+    // Ключ — пара (фильм, пользователь), значение: true — поставить лайк, false — убрать
+    private Map<Long, Boolean> pending = new HashMap<>();
+    private LikeJournal journal;
+    private ScheduledExecutorService flusher;
+
+    public LikeWriteBehind(FilmStorage filmStorage,
+                           FilmLeaderboard leaderboard,
+                           FilmLikesIndex likesIndex,
+                           @Value("${filmorate.likes.write-behind.capacity:100000}") int capacity,
+                           @Value("${filmorate.likes.write-behind.flush-size:1000}") int flushSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                           @Value("${filmorate.likes.write-behind.offer-timeout:PT1S}") Duration offerTimeout,
+                           @Value("${filmorate.likes.write-behind.durability:journal}") String durability,
+                           @Value("${filmorate.likes.write-behind.journal:data/likes.journal}") Path journalPath) {
+        this.filmStorage = filmStorage;
+        this.leaderboard = leaderboard;
+        this.likesIndex = likesIndex;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.durability = Durability.valueOf(durability.toUpperCase(Locale.ROOT));
+        this.journalPath = journalPath;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (durability != Durability.NONE) {
+            journal = new LikeJournal(journalPath, durability == Durability.FSYNC);
+            replayJournal();
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "likes-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: буфер {}, сброс каждые {} или по {} операций, надёжность {}",
+                capacity, flushInterval, flushSize, durability);
+    }
+
+    // Гарантирует, что при штатной остановке все принятые операции попадут в БД
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Фоновый сброс лайков не завершился за 30 секунд");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // Ставит операцию в буфер. Если буфер полон дольше offer-timeout — ServiceUnavailableException (503)
+    public void enqueue(int filmId, int userId, boolean like) {
+        long key = key(filmId, userId);
+        lock.lock();
+        try {
+            Boolean queued = pending.get(key);
+            if (queued == null) {
+                awaitSpace();
+            } else if (queued == like) {
+                return;
+            }
+            if (journal != null) {
+                journal.append(filmId, userId, like);
+            }
+            if (queued != null) {
+                // Противоположная операция ещё не записана в БД — обе отменяются
+                pending.remove(key);
+            } else {
+                pending.put(key, like);
+            }
+            if (pending.size() >= flushSize) {
+                requestFlush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать операцию в журнал лайков", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Выполняет изменение лайка (индексы и постановку в буфер), если не идёт массовый импорт.
+    // Импорт дольше offer-timeout — ServiceUnavailableException (503)
+    public boolean whileAccepting(BooleanSupplier change) {
+        try {
+            if (!importLock.readLock().tryLock(offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ServiceUnavailableException("Идёт массовый импорт лайков, повторите запрос позже");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Ожидание окончания импорта лайков прервано");
+        }
+        try {
+            return change.getAsBoolean();
+        } finally {
+            importLock.readLock().unlock();
+        }
+    }
+
+    // Останавливает приём изменений до resume и сбрасывает уже принятые в БД. Оба вызова — из одного потока
+    public void suspend() {
+        importLock.writeLock().lock();
+        try {
+            flushAndWait();
+        } catch (RuntimeException e) {
+            importLock.writeLock().unlock();
+            throw e;
+        }
+    }
+
+    public void resume() {
+        importLock.writeLock().unlock();
+    }
+
+    // Сбрасывает буфер в фоновом потоке и ждёт завершения — вызывающий код может находиться в своей транзакции
+    public void flushAndWait() {
+        try {
+            flusher.submit(this::flush).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Сброс отложенных лайков прерван");
+        } catch (ExecutionException | TimeoutException e) {
+            throw new ServiceUnavailableException("Не удалось сбросить отложенные лайки: " + e.getMessage());
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Boolean> batch;
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                if (journal != null) {
+                    journal.rotate();
+                }
+                notFull.signalAll();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось переключить журнал лайков", e);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                apply(batch);
+                if (journal != null) {
+                    journal.committed();
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("Не удалось сбросить {} отложенных операций с лайками, повтор при следующем сбросе",
+                        batch.size(), e);
+                restore(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static long key(int filmId, int userId) {
+        return ((long) filmId << 32) | (userId & 0xFFFFFFFFL);
+    }
+
+    private void awaitSpace() {
+        long nanos = offerTimeout.toNanos();
+        while (pending.size() >= capacity) {
+            requestFlush();
+            if (nanos <= 0) {
+                throw new ServiceUnavailableException("Буфер лайков переполнен, повторите запрос позже");
+            }
+            try {
+                nanos = notFull.awaitNanos(nanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Ожидание места в буфере лайков прервано");
+            }
+        }
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Ошибка фонового сброса лайков", e);
+        }
+    }
+
+    private void apply(Map<Long, Boolean> operations) {
+        List<FilmLike> added = new ArrayList<>();
+        List<FilmLike> removed = new ArrayList<>();
+        operations.forEach((key, like) -> {
+            FilmLike filmLike = new FilmLike((int) (key >>> 32), key.intValue());
+            (like ? added : removed).add(filmLike);
+        });
+        filmStorage.applyLikeChanges(added, removed);
+    }
+
+    // Возвращает несброшенные операции в буфер. Более новая операция по той же паре
+    // всегда противоположна старой, поэтому они взаимно уничтожаются
+    private void restore(Map<Long, Boolean> batch) {
+        lock.lock();
+        try {
+            batch.forEach((key, like) -> {
+                if (pending.remove(key) == null) {
+                    pending.put(key, like);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Операции, принятые до аварийного завершения, применяются при старте, после чего
+    // индексы в памяти перечитываются из БД
+    private void replayJournal() throws IOException {
+        Map<Long, Boolean> operations = journal.readPending();
+        if (operations.isEmpty()) {
+            return;
+        }
+        // Неизвестно, что из журнала уже попало в БД, поэтому применяем итоговое состояние каждой пары
+        apply(operations);
+        journal.clear();
+        leaderboard.rebuild();
+        likesIndex.rebuild();
+        log.info("Из журнала восстановлено операций с лайками: {}", operations.size());
+    }
+}
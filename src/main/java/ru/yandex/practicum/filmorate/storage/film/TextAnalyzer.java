@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Разбор текста на термы для поиска: нижний регистр, ё → е, разбиение по всему, что не буква и не цифра,
+// отбрасывание однобуквенных слов и служебных слов, лёгкое отсечение окончаний для русского и английского.
+// Один и тот же разбор применяется и к фильмам, и к запросам, поэтому стеммер может быть грубым
+public final class TextAnalyzer {
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "и", "в", "во", "на", "с", "со", "по", "за", "из", "от", "до", "для", "или", "как", "что", "это",
+            "не", "но", "то", "же", "об", "о",
+            "the", "and", "of", "on", "in", "to", "for", "with", "or", "an", "at", "by", "is");
+
+    // От длинных к коротким, чтобы «ами» отсекалось раньше «и»
+    private static final String[] RUSSIAN_ENDINGS = {
+            "иями", "ями", "ами", "ого", "его", "ому", "ему", "ыми", "ими",
+            "ой", "ей", "ий", "ый", "ая", "яя", "ое", "ее", "ые", "ие", "ов", "ев", "ом", "ем",
+            "ах", "ях", "ам", "ям", "ую", "юю",
+            "а", "я", "о", "е", "ы", "и", "у", "ю", "ь", "й"};
+
+    private TextAnalyzer() {
+    }
+
+    // Различные термы текста в порядке первого появления
+    public static List<String> terms(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>();
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = normalized.substring(start, i);
+                if (word.length() > 1 && !STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static String stem(String word) {
+        if (isCyrillic(word.charAt(0))) {
+            for (String ending : RUSSIAN_ENDINGS) {
+                if (word.endsWith(ending) && word.length() - ending.length() >= MIN_STEM_LENGTH) {
+                    return word.substring(0, word.length() - ending.length());
+                }
+            }
+            return word;
+        }
+        if (word.endsWith("ies") && word.length() > 4) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        for (String suffix : new String[]{"ing", "ed"}) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= MIN_STEM_LENGTH) {
+                return word.substring(0, word.length() - suffix.length());
+            }
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && word.length() > MIN_STEM_LENGTH) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    private static boolean isCyrillic(char c) {
+        return Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CYRILLIC;
+    }
+}
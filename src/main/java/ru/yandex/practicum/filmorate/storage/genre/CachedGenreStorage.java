@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Справочник жанров в памяти: загружается при старте, поиск по id — обращение к массиву
+@Repository
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachedGenreStorage implements GenreStorage {
+
+    private final GenreDbStorage genreDbStorage;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new Genre[0]);
+    // Растёт при каждой перезагрузке; из него строится ETag ответов справочника (EntityVersions.referenceTag)
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void refresh() {
+        List<Genre> genres = List.copyOf(genreDbStorage.getAll());
+        int maxId = genres.stream().mapToInt(Genre::getId).max().orElse(0);
+        Genre[] byId = new Genre[maxId + 1];
+        genres.forEach(genre -> byId[genre.getId()] = genre);
+        snapshot = new Snapshot(genres, byId);
+        // После подмены снимка: новый тег никогда не окажется рядом со старыми данными
+        version.incrementAndGet();
+        log.info("Справочник жанров загружен: {} записей", genres.size());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public List<Genre> getAll() {
+        return snapshot.all();
+    }
+
+    @Override
+    public Optional<Genre> findById(int id) {
+        Genre[] byId = snapshot.byId();
+        return id > 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    private record Snapshot(List<Genre> all, Genre[] byId) {
+    }
+}
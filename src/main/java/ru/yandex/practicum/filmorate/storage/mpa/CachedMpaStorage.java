@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Справочник рейтингов MPA в памяти: загружается при старте, поиск по id — обращение к массиву
+@Repository
+@Primary
+@RequiredArgsConstructor
+@Slf4j
+public class CachedMpaStorage implements MpaStorage {
+
+    private final MpaDbStorage mpaDbStorage;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of(), new Mpa[0]);
+    // Растёт при каждой перезагрузке; из него строится ETag ответов справочника (EntityVersions.referenceTag)
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void refresh() {
+        List<Mpa> mpaList = List.copyOf(mpaDbStorage.getAll());
+        int maxId = mpaList.stream().mapToInt(Mpa::getId).max().orElse(0);
+        Mpa[] byId = new Mpa[maxId + 1];
+        mpaList.forEach(mpa -> byId[mpa.getId()] = mpa);
+        snapshot = new Snapshot(mpaList, byId);
+        // После подмены снимка: новый тег никогда не окажется рядом со старыми данными
+        version.incrementAndGet();
+        log.info("Справочник рейтингов MPA загружен: {} записей", mpaList.size());
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    @Override
+    public List<Mpa> getAll() {
+        return snapshot.all();
+    }
+
+    @Override
+    public Optional<Mpa> findById(int id) {
+        Mpa[] byId = snapshot.byId();
+        return id > 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    private record Snapshot(List<Mpa> all, Mpa[] byId) {
+    }
+}
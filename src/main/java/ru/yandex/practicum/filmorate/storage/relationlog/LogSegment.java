@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.storage.relationlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Сегмент журнала связей: файл фиксированного размера, целиком отображённый в память.
+// Запись — 9 байт: операция и два id. Незаписанный хвост файла заполнен нулями, поэтому конец данных —
+// первая запись с нулевой операцией; байт операции пишется последним, после обоих id
+final class LogSegment implements Closeable {
+
+    static final int RECORD_SIZE = 9;
+
+    private final long id;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // Изменяется только под монитором RelationLog
+    private int position;
+
+    private LogSegment(long id, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.channel = channel;
+        this.buffer = buffer;
+        while (position + RECORD_SIZE <= buffer.capacity() && buffer.get(position) != 0) {
+            position += RECORD_SIZE;
+        }
+    }
+
+    // Существующий файл открывается в своём размере, даже если настройка segment-size с тех пор изменилась
+    static LogSegment open(Path path, long id, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long mapped = channel.size() > 0 ? channel.size() : size;
+        return new LogSegment(id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mapped));
+    }
+
+    long id() {
+        return id;
+    }
+
+    // false — сегмент заполнен
+    boolean append(byte op, int first, int second) {
+        if (position + RECORD_SIZE > buffer.capacity()) {
+            return false;
+        }
+        buffer.putInt(position + 1, first);
+        buffer.putInt(position + 5, second);
+        buffer.put(position, op);
+        position += RECORD_SIZE;
+        return true;
+    }
+
+    void forEach(RecordVisitor visitor) {
+        for (int offset = 0; offset < position; offset += RECORD_SIZE) {
+            visitor.accept(buffer.get(offset), buffer.getInt(offset + 1), buffer.getInt(offset + 5));
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void accept(byte op, int first, int second);
+    }
+}
@@ -0,0 +1,517 @@
+package ru.yandex.practicum.filmorate.storage.relationlog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static ru.yandex.practicum.filmorate.storage.relationlog.LogSegment.RECORD_SIZE;
+
+// Журнал связей (filmorate.relation-log.enabled=true): лайки и дружба живут в памяти, а не в таблицах
+// film_likes и friendship; каждое изменение дописывается записью в отображённый в память сегмент в каталоге
+// filmorate.relation-log.dir. Заполненный сегмент закрывается и начинается следующий; после compact-segments
+// закрытых сегментов состояние сохраняется снимком, а покрытые им сегменты удаляются.
+// При старте состояние собирается из последнего снимка и сегментов после него.
+// Фильмы, пользователи и films.likes_count остаются в БД: FilmDbStorage меняет счётчик при каждом реальном
+// изменении лайка, LikesCountRepairJob выравнивает его, если запись в журнал пережила откат транзакции
+@Component
+@ConditionalOnProperty(name = "filmorate.relation-log.enabled", havingValue = "true")
+@Slf4j
+public class RelationLog {
+
+    // NONE — страницы сбрасывает ОС (переживает падение процесса, но не ОС), INTERVAL — фоновый сброс
+    // каждые sync-interval, FSYNC — операция ждёт сброса, один сброс покрывает все накопившиеся операции
+    public enum Durability { NONE, INTERVAL, FSYNC }
+
+    static final byte LIKE = 1;
+    static final byte UNLIKE = 2;
+    static final byte FRIEND = 3;
+    static final byte UNFRIEND = 4;
+
+    private static final String SEGMENT = "segment-";
+    private static final String SNAPSHOT = "snapshot-";
+    private static final String SUFFIX = ".log";
+    private static final String SNAPSHOT_TMP = "snapshot.tmp";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final Durability durability;
+    private final Duration syncInterval;
+    private final int compactSegments;
+
+    // film_id -> отсортированные id пользователей, user_id -> отсортированные id друзей
+    private final ConcurrentHashMap<Integer, int[]> likes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, int[]> friends = new ConcurrentHashMap<>();
+
+    // Текущий сегмент меняется под монитором журнала; appended — номер последней записанной операции
+    private LogSegment current;
+    private volatile long appended;
+    // Номер сегмента, до которого включительно состояние сохранено в снимке
+    private volatile long snapshotId;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition syncRequested = syncLock.newCondition();
+    private final Condition syncCompleted = syncLock.newCondition();
+    // Номер последней операции, гарантированно сброшенной на диск
+    private long synced;
+    private volatile boolean running = true;
+    private Thread syncer;
+
+    private final Object compactionLock = new Object();
+    // Изменения держат блокировку на чтение от изменения состояния до записи в журнал, сжатие берёт её
+    // на запись для переключения сегмента и копии состояния: снимок ровно соответствует закрытым сегментам
+    private final ReentrantReadWriteLock cutLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private ExecutorService compactor;
+
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+
+    public RelationLog(@Value("${filmorate.relation-log.dir:data/relations}") Path dir,
+                       @Value("${filmorate.relation-log.segment-size:64MB}") DataSize segmentSize,
+                       @Value("${filmorate.relation-log.durability:interval}") String durability,
+                       @Value("${filmorate.relation-log.sync-interval:PT0.01S}") Duration syncInterval,
+                       @Value("${filmorate.relation-log.compact-segments:4}") int compactSegments,
+                       @Value("${filmorate.shards.enabled:false}") boolean sharded) {
+        if (sharded) {
+            throw new IllegalStateException("Журнал связей и шардирование связей нельзя включать одновременно");
+        }
+        if (segmentSize.toBytes() < RECORD_SIZE || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("filmorate.relation-log.segment-size должен быть от 9 байт до 2 ГБ");
+        }
+        if (compactSegments <= 0) {
+            throw new IllegalArgumentException("filmorate.relation-log.compact-segments должен быть положительным");
+        }
+        this.dir = dir;
+        // Сегмент вмещает целое число записей
+        this.segmentSize = (int) (segmentSize.toBytes() / RECORD_SIZE * RECORD_SIZE);
+        this.durability = Durability.valueOf(durability.toUpperCase(Locale.ROOT));
+        this.syncInterval = syncInterval;
+        this.compactSegments = compactSegments;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(dir);
+        Files.deleteIfExists(dir.resolve(SNAPSHOT_TMP));
+
+        List<Long> snapshots = list(SNAPSHOT);
+        if (!snapshots.isEmpty()) {
+            snapshotId = snapshots.get(snapshots.size() - 1);
+            loadSnapshot(path(SNAPSHOT, snapshotId));
+        }
+        long[] replayed = {0};
+        for (long id : list(SEGMENT)) {
+            if (id <= snapshotId) {
+                // Остался от сжатия, прерванного после записи снимка
+                Files.delete(path(SEGMENT, id));
+                continue;
+            }
+            LogSegment segment = LogSegment.open(path(SEGMENT, id), id, segmentSize);
+            segment.forEach((op, first, second) -> {
+                mutate(op, first, second, false);
+                replayed[0]++;
+            });
+            if (current != null) {
+                current.close();
+            }
+            current = segment;
+        }
+        for (long id : snapshots) {
+            if (id < snapshotId) {
+                Files.delete(path(SNAPSHOT, id));
+            }
+        }
+        if (current == null) {
+            current = LogSegment.open(path(SEGMENT, snapshotId + 1), snapshotId + 1, segmentSize);
+        }
+
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "relation-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (durability != Durability.NONE) {
+            syncer = new Thread(this::syncLoop, "relation-log-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        if (current.id() - snapshotId - 1 >= compactSegments) {
+            requestCompaction();
+        }
+        log.info("Журнал связей {} восстановлен за {} мс: снимок {}, операций после него {}, надёжность {}",
+                dir, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), snapshotId, replayed[0], durability);
+    }
+
+    // Дожидается фонового сжатия и сбрасывает текущий сегмент на диск
+    @PreDestroy
+    public void shutdown() throws IOException {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Сжатие журнала связей не завершилось за 30 секунд");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        running = false;
+        if (syncer != null) {
+            syncLock.lock();
+            try {
+                syncRequested.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                syncer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            current.force();
+            current.close();
+        }
+        syncLock.lock();
+        try {
+            synced = appended;
+            syncCompleted.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Все изменения возвращают true, если состояние действительно изменилось; в журнал пишутся только такие
+    public boolean addLike(int filmId, int userId) {
+        return mutate(LIKE, filmId, userId, true);
+    }
+
+    public boolean removeLike(int filmId, int userId) {
+        return mutate(UNLIKE, filmId, userId, true);
+    }
+
+    public boolean addFriend(int userId, int friendId) {
+        return mutate(FRIEND, userId, friendId, true);
+    }
+
+    public boolean removeFriend(int userId, int friendId) {
+        return mutate(UNFRIEND, userId, friendId, true);
+    }
+
+    public Map<Integer, int[]> getLikes() {
+        return new HashMap<>(likes);
+    }
+
+    public Map<Integer, int[]> getFriends() {
+        return new HashMap<>(friends);
+    }
+
+    public int[] friendsOf(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY);
+    }
+
+    // Сохраняет снимок состояния и удаляет покрытые им сегменты. Обычно вызывается в фоне после
+    // заполнения compact-segments сегментов. Переключение сегмента и копирование состояния идут без
+    // параллельных изменений; копия неглубокая — массивы не меняются на месте, каждое изменение
+    // заменяет массив ключа новым. Запись снимка на диск — уже без блокировки
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            long upTo;
+            Map<Integer, int[]> likesCut;
+            Map<Integer, int[]> friendsCut;
+            cutLock.writeLock().lock();
+            try {
+                synchronized (this) {
+                    upTo = current.id();
+                    rotate();
+                }
+                likesCut = new HashMap<>(likes);
+                friendsCut = new HashMap<>(friends);
+            } finally {
+                cutLock.writeLock().unlock();
+            }
+            writeSnapshot(upTo, likesCut, friendsCut);
+            snapshotId = upTo;
+            for (long id : list(SEGMENT)) {
+                if (id <= upTo) {
+                    Files.delete(path(SEGMENT, id));
+                }
+            }
+            for (long id : list(SNAPSHOT)) {
+                if (id < upTo) {
+                    Files.delete(path(SNAPSHOT, id));
+                }
+            }
+            compactions.increment();
+            log.debug("Журнал связей сжат до снимка {}", upTo);
+        }
+    }
+
+    public long getAppendedCount() {
+        return appended;
+    }
+
+    // Сегменты после последнего снимка, включая текущий
+    public synchronized long getSegmentCount() {
+        return current.id() - snapshotId;
+    }
+
+    public long getSyncCount() {
+        return syncs.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    // Изменение связи и запись в журнал выполняются под блокировкой ключа в ConcurrentHashMap.compute,
+    // поэтому операции над одной парой попадают в журнал в том же порядке, в каком применены.
+    // Блокировка cutLock на чтение не даёт сжатию разделить изменение и его запись между снимком и
+    // сегментом после него. Ожидание сброса на диск — уже после выхода из compute и cutLock
+    private boolean mutate(byte op, int key, int value, boolean record) {
+        boolean add = op == LIKE || op == FRIEND;
+        ConcurrentHashMap<Integer, int[]> relation = op == LIKE || op == UNLIKE ? likes : friends;
+        boolean[] changed = {false};
+        long[] sequence = {0};
+        if (record) {
+            cutLock.readLock().lock();
+        }
+        try {
+            relation.compute(key, (id, ids) -> {
+                int[] updated = add ? SortedIntArrays.insert(ids, value)
+                        : ids == null ? null : SortedIntArrays.removeOrNull(ids, value);
+                if (updated != ids) {
+                    changed[0] = true;
+                    if (record) {
+                        sequence[0] = append(op, key, value);
+                    }
+                }
+                return updated;
+            });
+        } finally {
+            if (record) {
+                cutLock.readLock().unlock();
+            }
+        }
+        if (durability == Durability.FSYNC && sequence[0] > 0) {
+            awaitSync(sequence[0]);
+        }
+        return changed[0];
+    }
+
+    private synchronized long append(byte op, int first, int second) {
+        if (!current.append(op, first, second)) {
+            rotate();
+            current.append(op, first, second);
+        }
+        return ++appended;
+    }
+
+    // Вызывается под монитором журнала. Закрываемый сегмент сбрасывается сразу, поэтому фоновому
+    // сбросу достаточно следить только за текущим
+    private void rotate() {
+        try {
+            current.force();
+            current.close();
+            long next = current.id() + 1;
+            current = LogSegment.open(path(SEGMENT, next), next, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось начать новый сегмент журнала связей", e);
+        }
+        if (current.id() - snapshotId - 1 >= compactSegments) {
+            requestCompaction();
+        }
+    }
+
+    private void requestCompaction() {
+        if (compactor != null && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Не удалось сжать журнал связей", e);
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private void awaitSync(long sequence) {
+        syncLock.lock();
+        try {
+            while (synced < sequence && running) {
+                syncRequested.signal();
+                syncCompleted.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Ожидание записи журнала связей на диск прервано");
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // В режиме FSYNC сброс начинается сразу, как только есть несброшенные операции: пока идёт один сброс,
+    // операции следующих запросов копятся и уходят на диск следующим общим сбросом
+    private void syncLoop() {
+        while (running) {
+            syncLock.lock();
+            try {
+                if (durability == Durability.INTERVAL || synced >= appended) {
+                    syncRequested.awaitNanos(syncInterval.toNanos());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.error("Не удалось сбросить журнал связей на диск", e);
+            }
+        }
+    }
+
+    private void sync() {
+        long target;
+        LogSegment segment;
+        synchronized (this) {
+            target = appended;
+            segment = current;
+        }
+        syncLock.lock();
+        try {
+            if (target <= synced) {
+                return;
+            }
+        } finally {
+            syncLock.unlock();
+        }
+        segment.force();
+        syncs.increment();
+        syncLock.lock();
+        try {
+            synced = target;
+            syncCompleted.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Снимок — те же 9-байтовые записи добавления, упорядоченные по ключу и id,
+    // поэтому при загрузке массивы строятся сразу, без вставок
+    private void writeSnapshot(long upTo, Map<Integer, int[]> likesCut,
+                               Map<Integer, int[]> friendsCut) throws IOException {
+        Path tmp = dir.resolve(SNAPSHOT_TMP);
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 8192);
+            writeRelation(channel, buffer, LIKE, likesCut);
+            writeRelation(channel, buffer, FRIEND, friendsCut);
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, path(SNAPSHOT, upTo), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeRelation(FileChannel channel, ByteBuffer buffer, byte op,
+                                      Map<Integer, int[]> relation) throws IOException {
+        for (Map.Entry<Integer, int[]> entry : new TreeMap<>(relation).entrySet()) {
+            for (int value : entry.getValue()) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(channel, buffer);
+                }
+                buffer.put(op).putInt(entry.getKey()).putInt(value);
+            }
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void loadSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte runOp = 0;
+            int runKey = 0;
+            int[] run = new int[16];
+            int size = 0;
+            while (buffer.remaining() >= RECORD_SIZE) {
+                byte op = buffer.get();
+                int key = buffer.getInt();
+                int value = buffer.getInt();
+                if (op != runOp || key != runKey) {
+                    putRun(runOp, runKey, run, size);
+                    runOp = op;
+                    runKey = key;
+                    size = 0;
+                }
+                if (size == run.length) {
+                    run = Arrays.copyOf(run, size * 2);
+                }
+                run[size++] = value;
+            }
+            putRun(runOp, runKey, run, size);
+        }
+    }
+
+    private void putRun(byte op, int key, int[] run, int size) {
+        if (size > 0) {
+            (op == LIKE ? likes : friends).put(key, Arrays.copyOf(run, size));
+        }
+    }
+
+    private Path path(String prefix, long id) {
+        return dir.resolve(String.format("%s%020d%s", prefix, id, SUFFIX));
+    }
+
+    private List<Long> list(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(prefix.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
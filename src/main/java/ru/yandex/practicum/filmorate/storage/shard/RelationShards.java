@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Шарды таблиц связей (filmorate.shards.enabled=true): film_likes делится по film_id, friendship — по user_id,
+// на filmorate.shards.count отдельных баз H2 (адрес — filmorate.shards.url с номером шарда вместо %d).
+// Фильмы, пользователи и справочники остаются в основной базе.
+// Запись в шард не входит в транзакцию основной базы; расхождение films.likes_count с лайками
+// исправляет LikesCountRepairJob. Перенос данных при смене числа шардов — Resharder
+@Component
+@ConditionalOnProperty(name = "filmorate.shards.enabled", havingValue = "true")
+@Slf4j
+public class RelationShards {
+
+    static final String SCHEMA = "shard-schema.sql";
+
+    private final List<HikariDataSource> dataSources = new ArrayList<>();
+    private final List<JdbcTemplate> templates = new ArrayList<>();
+    private final ExecutorService executor;
+
+    public RelationShards(@Value("${filmorate.shards.count:4}") int count,
+                          @Value("${filmorate.shards.url:jdbc:h2:file:./db/filmorate-shard-%d}") String urlPattern,
+                          @Value("${filmorate.shards.pool-size:4}") int poolSize,
+                          @Value("${spring.datasource.username:sa}") String username,
+                          @Value("${spring.datasource.password:}") String password,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("filmorate.shards.count должен быть положительным");
+        }
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource(SCHEMA));
+        for (int shard = 0; shard < count; shard++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(String.format(urlPattern, shard));
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setPoolName("filmorate-shard-" + shard);
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            schema.execute(dataSource);
+            dataSources.add(dataSource);
+            templates.add(new JdbcTemplate(dataSource));
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Связи разделены на {} шардов: {}", count, urlPattern);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    public static int shardOf(int key, int count) {
+        return Math.floorMod(key, count);
+    }
+
+    public int count() {
+        return templates.size();
+    }
+
+    public int shardOf(int key) {
+        return shardOf(key, templates.size());
+    }
+
+    // Шард, где лежат связи с этим ключом (film_id для лайков, user_id для дружбы)
+    public JdbcTemplate forKey(int key) {
+        return templates.get(shardOf(key));
+    }
+
+    public JdbcTemplate forShard(int shard) {
+        return templates.get(shard);
+    }
+
+    // Выполняет запрос на всех шардах параллельно; результаты в порядке номеров шардов
+    public <T> List<T> scatter(Function<JdbcTemplate, T> query) {
+        return gather(templates.stream()
+                .map(template -> CompletableFuture.supplyAsync(() -> query.apply(template), executor))
+                .toList());
+    }
+
+    // Выполняет запрос на шардах переданных ключей параллельно; результаты в порядке ключей
+    public <T> List<T> scatter(int[] keys, BiFunction<JdbcTemplate, Integer, T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(keys.length);
+        for (int key : keys) {
+            JdbcTemplate template = forKey(key);
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(template, key), executor));
+        }
+        return gather(futures);
+    }
+
+    private static <T> List<T> gather(List<CompletableFuture<T>> futures) {
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
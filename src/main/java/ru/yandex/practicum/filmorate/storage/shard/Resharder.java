@@ -0,0 +1,136 @@
+package ru.yandex.practicum.filmorate.storage.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Офлайн-перенос film_likes и friendship на новое число шардов. Приложение должно быть остановлено.
+// Источник — основная база (--from-shards=0) или текущие шарды, приёмник — новые, ещё пустые базы:
+//   java -cp filmorate.jar -Dloader.main=ru.yandex.practicum.filmorate.storage.shard.Resharder \
+//        org.springframework.boot.loader.launch.PropertiesLauncher \
+//        --from-url=jdbc:h2:file:./db/filmorate-shard-%d --from-shards=4 \
+//        --to-url=jdbc:h2:file:./db/filmorate-reshard-%d --to-shards=8 [--user=sa --password=password]
+// После переноса приёмник подключается через filmorate.shards.url и filmorate.shards.count
+@Slf4j
+public final class Resharder {
+
+    private static final int BATCH = 10_000;
+
+    private static final String LIKES_INSERT = "INSERT INTO film_likes (film_id, user_id) VALUES (?, ?)";
+    private static final String FRIENDSHIP_INSERT = "INSERT INTO friendship (user_id, friend_id) VALUES (?, ?)";
+
+    private final List<JdbcTemplate> sources = new ArrayList<>();
+    private final List<JdbcTemplate> targets = new ArrayList<>();
+
+    public Resharder(String fromUrl, int fromShards, String toUrl, int toShards, String user, String password) {
+        if (toShards <= 0) {
+            throw new IllegalArgumentException("Число шардов приёмника должно быть положительным");
+        }
+        if (fromShards == 0) {
+            sources.add(template(fromUrl, user, password));
+        }
+        for (int shard = 0; shard < fromShards; shard++) {
+            sources.add(template(String.format(fromUrl, shard), user, password));
+        }
+        for (int shard = 0; shard < toShards; shard++) {
+            targets.add(template(String.format(toUrl, shard), user, password));
+        }
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Ожидается --параметр=значение: " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        Resharder resharder = new Resharder(
+                required(options, "from-url"),
+                Integer.parseInt(required(options, "from-shards")),
+                required(options, "to-url"),
+                Integer.parseInt(required(options, "to-shards")),
+                options.getOrDefault("user", "sa"),
+                options.getOrDefault("password", ""));
+        resharder.run();
+    }
+
+    public void run() {
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource(RelationShards.SCHEMA));
+        for (JdbcTemplate target : targets) {
+            schema.execute(target.getDataSource());
+            Integer rows = target.queryForObject(
+                    "SELECT (SELECT COUNT(*) FROM film_likes) + (SELECT COUNT(*) FROM friendship)", Integer.class);
+            if (rows != null && rows > 0) {
+                throw new IllegalStateException("Шард-приёмник не пуст: " + target.getDataSource());
+            }
+        }
+
+        long likes = copy("SELECT film_id, user_id FROM film_likes", LIKES_INSERT);
+        long friendships = copy("SELECT user_id, friend_id FROM friendship", FRIENDSHIP_INSERT);
+        log.info("Перенесено на {} шардов: лайков {}, связей дружбы {}", targets.size(), likes, friendships);
+    }
+
+    // Первая колонка — ключ шардирования (film_id для лайков, user_id для дружбы)
+    private long copy(String select, String insert) {
+        long copied = 0;
+        for (JdbcTemplate source : sources) {
+            List<List<int[]>> buffers = new ArrayList<>();
+            targets.forEach(target -> buffers.add(new ArrayList<>()));
+            long[] counter = {0};
+            source.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(select,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(BATCH);
+                return ps;
+            }, rs -> {
+                int key = rs.getInt(1);
+                int shard = RelationShards.shardOf(key, targets.size());
+                List<int[]> buffer = buffers.get(shard);
+                buffer.add(new int[]{key, rs.getInt(2)});
+                if (buffer.size() == BATCH) {
+                    flush(targets.get(shard), insert, buffer);
+                }
+                counter[0]++;
+            });
+            for (int shard = 0; shard < targets.size(); shard++) {
+                flush(targets.get(shard), insert, buffers.get(shard));
+            }
+            copied += counter[0];
+        }
+        return copied;
+    }
+
+    private static void flush(JdbcTemplate target, String insert, List<int[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        target.batchUpdate(insert, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row[0]);
+            ps.setInt(2, row[1]);
+        });
+        rows.clear();
+    }
+
+    private static JdbcTemplate template(String url, String user, String password) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, user, password));
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Не задан параметр --" + name);
+        }
+        return value;
+    }
+}
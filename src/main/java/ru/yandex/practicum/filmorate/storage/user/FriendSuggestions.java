@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// «Возможно, вы знакомы»: кандидаты — друзья друзей, не являющиеся друзьями пользователя,
+// ранжированные по числу общих друзей. Результаты кэшируются по пользователю
+@Component
+@Slf4j
+public class FriendSuggestions {
+
+    public static final int MAX_SUGGESTIONS = 100;
+
+    // Меньше друзей обходим в одном потоке: накладные расходы на распараллеливание дороже обхода
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    // Больше общих друзей — выше; при равенстве первым идёт пользователь с меньшим id
+    private static final Comparator<Map.Entry<Integer, Integer>> ORDER =
+            Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private final FriendshipGraph graph;
+    private final int fanOut;
+    private final int maxCachedUsers;
+
+    private final Map<Integer, int[]> cache = new ConcurrentHashMap<>();
+    // Увеличивается при каждой инвалидации, чтобы не сохранить результат, посчитанный по старому графу
+    private final AtomicLong generation = new AtomicLong();
+
+    public FriendSuggestions(FriendshipGraph graph,
+                             @Value("${filmorate.friend-suggestions.fan-out:1000}") int fanOut,
+                             @Value("${filmorate.friend-suggestions.cache-size:100000}") int maxCachedUsers) {
+        this.graph = graph;
+        this.fanOut = fanOut;
+        this.maxCachedUsers = maxCachedUsers;
+    }
+
+    // Id рекомендуемых пользователей в порядке убывания числа общих друзей
+    public int[] suggest(int userId, int limit) {
+        int[] ranked = cache.get(userId);
+        if (ranked == null) {
+            long loadGeneration = generation.get();
+            ranked = compute(userId);
+            if (cache.size() >= maxCachedUsers) {
+                cache.clear();
+            }
+            cache.put(userId, ranked);
+            if (generation.get() != loadGeneration) {
+                cache.remove(userId, ranked);
+            }
+        }
+        return Arrays.copyOf(ranked, Math.min(limit, ranked.length));
+    }
+
+    // Изменились друзья пользователя: устаревают его рекомендации и рекомендации тех,
+    // у кого он в друзьях (для них он — первый шаг обхода)
+    public void invalidate(int userId) {
+        generation.incrementAndGet();
+        cache.remove(userId);
+        for (int follower : graph.getFollowers(userId)) {
+            cache.remove(follower);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private int[] compute(int userId) {
+        int[] direct = graph.friendsView(userId);
+        IntStream firstHop = IntStream.of(direct).limit(fanOut);
+        if (Math.min(direct.length, fanOut) >= PARALLEL_THRESHOLD) {
+            firstHop = firstHop.parallel();
+        }
+
+        Map<Integer, Integer> mutual = firstHop.collect(HashMap::new,
+                (counts, friend) -> {
+                    int[] second = graph.friendsView(friend);
+                    int bound = Math.min(second.length, fanOut);
+                    for (int i = 0; i < bound; i++) {
+                        int candidate = second[i];
+                        if (candidate != userId && Arrays.binarySearch(direct, candidate) < 0) {
+                            counts.merge(candidate, 1, Integer::sum);
+                        }
+                    }
+                },
+                (left, right) -> right.forEach((candidate, count) -> left.merge(candidate, count, Integer::sum)));
+
+        return mutual.entrySet().stream()
+                .sorted(ORDER)
+                .limit(MAX_SUGGESTIONS)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+}
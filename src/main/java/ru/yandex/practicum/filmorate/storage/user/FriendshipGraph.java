@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+// Граф дружбы в памяти: для каждого пользователя — отсортированные массивы id друзей
+// и id тех, кто добавил его в друзья (подписчиков).
+// Массивы не изменяются на месте, при изменении подменяются новой копией,
+// поэтому читатели работают без блокировок
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FriendshipGraph {
+
+    private final UserStorage userStorage;
+
+    // Как и в FilmLeaderboard: изменения берут read-lock, перестроение из БД — write-lock
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, int[]> friends = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> followers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        changeLock.writeLock().lock();
+        try {
+            Map<Integer, int[]> loaded = userStorage.getFriendIds();
+            friends.clear();
+            friends.putAll(loaded);
+            followers.clear();
+            followers.putAll(SortedIntArrays.invert(loaded));
+            log.info("Граф дружбы загружен из БД: {} пользователей с друзьями", loaded.size());
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    // Выполняет запись дружбы и, если она что-то изменила, добавляет ребро в граф
+    public boolean addFriend(int userId, int friendId, BooleanSupplier write) {
+        changeLock.readLock().lock();
+        try {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            friends.compute(userId, (id, current) -> SortedIntArrays.insert(current, friendId));
+            followers.compute(friendId, (id, current) -> SortedIntArrays.insert(current, userId));
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    // Выполняет удаление дружбы и, если связь была, убирает ребро из графа
+    public boolean removeFriend(int userId, int friendId, BooleanSupplier write) {
+        changeLock.readLock().lock();
+        try {
+            if (!write.getAsBoolean()) {
+                return false;
+            }
+            friends.computeIfPresent(userId, (id, current) -> SortedIntArrays.removeOrNull(current, friendId));
+            followers.computeIfPresent(friendId, (id, current) -> SortedIntArrays.removeOrNull(current, userId));
+            return true;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    public int[] getFriends(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY).clone();
+    }
+
+    // Кто добавил пользователя в друзья
+    public int[] getFollowers(int userId) {
+        return followers.getOrDefault(userId, SortedIntArrays.EMPTY).clone();
+    }
+
+    public int getFollowerCount(int userId) {
+        return followers.getOrDefault(userId, SortedIntArrays.EMPTY).length;
+    }
+
+    // Массив без копирования — только для чтения внутри пакета
+    int[] friendsView(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY);
+    }
+
+    public int[] getCommonFriends(int userId, int otherId) {
+        return SortedIntArrays.intersect(friendsView(userId), friendsView(otherId));
+    }
+}
@@ -0,0 +1,209 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Хранилище пользователей в памяти для профиля memory. Дружба — отсортированные массивы id друзей,
+// изменяемые через ConcurrentHashMap.compute с блокировкой только корзины ключа; чтения без блокировок.
+// Уникальность email и логина проверяется, как ограничениями UNIQUE схемы: запись пользователей
+// редкая, поэтому она просто сериализуется на мониторе хранилища
+@Repository
+@Profile("memory")
+@Slf4j
+public class InMemoryUserStorage implements UserStorage {
+
+    private final ConcurrentSkipListMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, Integer> emails = new HashMap<>();
+    private final Map<String, Integer> logins = new HashMap<>();
+    // user_id -> отсортированные id друзей
+    private final ConcurrentHashMap<Integer, int[]> friends = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    @Override
+    public synchronized User add(User user) {
+        requireUnique(user, 0);
+        user.setId(nextId.incrementAndGet());
+        store(user);
+        log.debug("Пользователь добавлен в память: {} (ID: {})", user.getLogin(), user.getId());
+        return user;
+    }
+
+    @Override
+    public synchronized List<Integer> addAll(List<User> users) {
+        // Как и пакет INSERT в транзакции: при дубликате не добавляется ни один пользователь
+        Set<String> batchEmails = new HashSet<>();
+        Set<String> batchLogins = new HashSet<>();
+        for (User user : users) {
+            requireUnique(user, 0);
+            if (!batchEmails.add(user.getEmail()) || !batchLogins.add(user.getLogin())) {
+                throw new DuplicateKeyException("Повторяющийся email или логин в пакете: " + user.getLogin());
+            }
+        }
+        for (User user : users) {
+            user.setId(nextId.incrementAndGet());
+            store(user);
+        }
+        return users.stream().map(User::getId).toList();
+    }
+
+    @Override
+    public synchronized User update(User user) {
+        User existing = users.get(user.getId());
+        if (existing == null) {
+            return user;
+        }
+        requireUnique(user, user.getId());
+        emails.remove(existing.getEmail());
+        logins.remove(existing.getLogin());
+        store(user);
+        log.debug("Пользователь обновлён в памяти: {} (ID: {})", user.getLogin(), user.getId());
+        return user;
+    }
+
+    @Override
+    public List<User> getAll() {
+        return users.values().stream().map(InMemoryUserStorage::copyOf).toList();
+    }
+
+    @Override
+    public List<User> getPage(int afterId, int limit) {
+        return users.tailMap(afterId, false).values().stream()
+                .limit(limit)
+                .map(InMemoryUserStorage::copyOf)
+                .toList();
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return Optional.ofNullable(users.get(id)).map(InMemoryUserStorage::copyOf);
+    }
+
+    @Override
+    public List<User> findByIds(List<Integer> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryUserStorage::copyOf)
+                .toList();
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existing = new HashSet<>();
+        ids.stream().filter(users::containsKey).forEach(existing::add);
+        return existing;
+    }
+
+    @Override
+    public List<User> getCommonFriends(int userId, int otherId) {
+        int[] common = SortedIntArrays.intersect(friendsOf(userId), friendsOf(otherId));
+        return findByIds(Arrays.stream(common).boxed().toList());
+    }
+
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        boolean[] changed = {false};
+        friends.compute(userId, (id, friendIds) -> {
+            int[] updated = SortedIntArrays.insert(friendIds, friendId);
+            changed[0] = updated != friendIds;
+            return updated;
+        });
+        return changed[0];
+    }
+
+    @Override
+    public boolean[] addFriendships(List<Friendship> friendships) {
+        boolean[] inserted = new boolean[friendships.size()];
+        for (int i = 0; i < friendships.size(); i++) {
+            inserted[i] = addFriend(friendships.get(i).getUserId(), friendships.get(i).getFriendId());
+        }
+        return inserted;
+    }
+
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        boolean[] changed = {false};
+        friends.computeIfPresent(userId, (id, friendIds) -> {
+            int[] updated = SortedIntArrays.removeOrNull(friendIds, friendId);
+            changed[0] = updated != friendIds;
+            return updated;
+        });
+        return changed[0];
+    }
+
+    @Override
+    public List<User> getFriends(int userId) {
+        return findByIds(Arrays.stream(friendsOf(userId)).boxed().toList());
+    }
+
+    @Override
+    public List<User> getFriendsPage(int userId, int afterId, int limit) {
+        return findByIds(Arrays.stream(friendsOf(userId))
+                .filter(friendId -> friendId > afterId)
+                .limit(limit)
+                .boxed()
+                .toList());
+    }
+
+    @Override
+    public Map<Integer, String> getLogins() {
+        Map<Integer, String> result = new HashMap<>();
+        users.values().forEach(user -> result.put(user.getId(), user.getLogin()));
+        return result;
+    }
+
+    @Override
+    public Map<Integer, int[]> getFriendIds() {
+        return new HashMap<>(friends);
+    }
+
+    private int[] friendsOf(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY);
+    }
+
+    // Вызывается под монитором хранилища; ownerId — id пользователя, которому значения уже могут принадлежать
+    private void requireUnique(User user, int ownerId) {
+        Integer emailOwner = emails.get(user.getEmail());
+        if (emailOwner != null && emailOwner != ownerId) {
+            throw new DuplicateKeyException("Email уже занят: " + user.getEmail());
+        }
+        Integer loginOwner = logins.get(user.getLogin());
+        if (loginOwner != null && loginOwner != ownerId) {
+            throw new DuplicateKeyException("Логин уже занят: " + user.getLogin());
+        }
+    }
+
+    private void store(User user) {
+        users.put(user.getId(), copyOf(user));
+        emails.put(user.getEmail(), user.getId());
+        logins.put(user.getLogin(), user.getId());
+    }
+
+    private static User copyOf(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        return copy;
+    }
+}
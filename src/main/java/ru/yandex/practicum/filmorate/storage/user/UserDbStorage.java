@@ -1,27 +1,56 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.SortedIntArrays;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+import ru.yandex.practicum.filmorate.storage.shard.RelationShards;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Repository("userDbStorage")
-@RequiredArgsConstructor
+@Profile("!memory")
 @Slf4j
 public class UserDbStorage implements UserStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    // null, если friendship лежит в основной базе
+    private final RelationShards shards;
+    // Не null, если дружба хранится в журнале связей, а не в friendship
+    private final RelationLog relationLog;
+
+    public UserDbStorage(JdbcTemplate jdbcTemplate,
+                         ObjectProvider<RelationShards> shards,
+                         ObjectProvider<RelationLog> relationLog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shards = shards.getIfAvailable();
+        this.relationLog = relationLog.getIfAvailable();
+    }
 
     @Override
     public User add(User user) {
@@ -42,6 +71,40 @@ public class UserDbStorage implements UserStorage {
         return user;
     }
 
+    // Пакетная вставка пользователей; возвращает сгенерированные id в порядке входного списка
+    @Override
+    public List<Integer> addAll(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getEmail());
+                        ps.setString(2, user.getLogin());
+                        ps.setString(3, user.getName());
+                        ps.setDate(4, Date.valueOf(user.getBirthday()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setId(((Number) keys.get(i).values().iterator().next()).intValue());
+        }
+        log.debug("Пакетно добавлено пользователей в БД: {}", users.size());
+        return users.stream().map(User::getId).toList();
+    }
+
     @Override
     public User update(User user) {
         String sql = "UPDATE users SET email = ?, login = ?, name = ?, birthday = ? WHERE user_id = ?";
@@ -61,6 +124,12 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, new UserRowMapper());
     }
 
+    @Override
+    public List<User> getPage(int afterId, int limit) {
+        String sql = "SELECT * FROM users WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        return jdbcTemplate.query(sql, new UserRowMapper(), afterId, limit);
+    }
+
     @Override
     public Optional<User> findById(int id) {
         String sql = "SELECT * FROM users WHERE user_id = ?";
@@ -68,8 +137,39 @@ public class UserDbStorage implements UserStorage {
         return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
     }
 
+    @Override
+    public List<User> findByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String inSql = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = String.format("SELECT * FROM users WHERE user_id IN (%s)", inSql);
+        List<User> users = jdbcTemplate.query(sql, new UserRowMapper(), ids.toArray());
+
+        // Возвращаем пользователей в том же порядке, в котором были запрошены id
+        Map<Integer, User> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public List<User> getCommonFriends(int userId, int otherId) {
+        if (relationLog != null) {
+            int[] common = SortedIntArrays.intersect(relationLog.friendsOf(userId), relationLog.friendsOf(otherId));
+            return findByIds(Arrays.stream(common).boxed().toList());
+        }
+        if (shards != null) {
+            // Друзья обоих пользователей читаются с их шардов параллельно, пересечение — в памяти
+            String sql = "SELECT friend_id FROM friendship WHERE user_id = ? ORDER BY friend_id";
+            int[] ids = {userId, otherId};
+            List<int[]> friends = shards.scatter(ids, (template, id) -> template.queryForList(sql, Integer.class, id)
+                    .stream().mapToInt(Integer::intValue).toArray());
+            return findByIds(Arrays.stream(SortedIntArrays.intersect(friends.get(0), friends.get(1))).boxed().toList());
+        }
         String sql = """
                 SELECT u.* FROM users u
                 WHERE u.user_id IN (
@@ -81,19 +181,146 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, new UserRowMapper(), userId, otherId);
     }
 
-    public void addFriend(int userId, int friendId) {
-        String sql = "MERGE INTO friendship (user_id, friend_id) KEY (user_id, friend_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, userId, friendId);
+    // Добавляет дружбу. Возвращает true, если связи ещё не было
+    @Override
+    public boolean addFriend(int userId, int friendId) {
+        if (relationLog != null) {
+            return relationLog.addFriend(userId, friendId);
+        }
+        String sql = """
+                INSERT INTO friendship (user_id, friend_id)
+                SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM friendship WHERE user_id = ? AND friend_id = ?)
+                """;
+        int inserted;
+        try {
+            inserted = friendshipTemplate(userId).update(sql, userId, friendId, userId, friendId);
+        } catch (DuplicateKeyException e) {
+            // Параллельный запрос успел добавить ту же связь
+            inserted = 0;
+        }
         log.debug("Дружба добавлена в БД: {} -> {}", userId, friendId);
+        return inserted > 0;
+    }
+
+    // Пакетное добавление дружбы; для каждой пары возвращает true, если связь была новой
+    @Override
+    public boolean[] addFriendships(List<Friendship> friendships) {
+        if (relationLog != null) {
+            boolean[] inserted = new boolean[friendships.size()];
+            for (int i = 0; i < friendships.size(); i++) {
+                inserted[i] = relationLog.addFriend(friendships.get(i).getUserId(), friendships.get(i).getFriendId());
+            }
+            return inserted;
+        }
+        int[] counts;
+        if (shards == null) {
+            counts = insertFriendships(jdbcTemplate, friendships);
+        } else {
+            // Пакет делится по шардам, счётчики возвращаются в исходном порядке
+            Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+            for (int i = 0; i < friendships.size(); i++) {
+                positionsByShard.computeIfAbsent(shards.shardOf(friendships.get(i).getUserId()),
+                        k -> new ArrayList<>()).add(i);
+            }
+            int[] merged = new int[friendships.size()];
+            positionsByShard.forEach((shard, positions) -> {
+                int[] shardCounts = insertFriendships(shards.forShard(shard),
+                        positions.stream().map(friendships::get).toList());
+                for (int i = 0; i < positions.size(); i++) {
+                    merged[positions.get(i)] = shardCounts[i];
+                }
+            });
+            counts = merged;
+        }
+
+        boolean[] inserted = new boolean[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            inserted[i] = counts[i] > 0;
+        }
+        return inserted;
     }
 
-    public void removeFriend(int userId, int friendId) {
+    private int[] insertFriendships(JdbcTemplate template, List<Friendship> friendships) {
+        String sql = """
+                INSERT INTO friendship (user_id, friend_id)
+                SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM friendship WHERE user_id = ? AND friend_id = ?)
+                """;
+        return template.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Friendship friendship = friendships.get(i);
+                ps.setInt(1, friendship.getUserId());
+                ps.setInt(2, friendship.getFriendId());
+                ps.setInt(3, friendship.getUserId());
+                ps.setInt(4, friendship.getFriendId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return friendships.size();
+            }
+        });
+    }
+
+    // Какие из переданных id пользователей существуют в БД
+    @Override
+    public Set<Integer> findExistingIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        String inSql = String.join(",", Collections.nCopies(ids.size(), "?"));
+        String sql = String.format("SELECT user_id FROM users WHERE user_id IN (%s)", inSql);
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Integer.class, ids.toArray()));
+    }
+
+    // Удаляет дружбу. Возвращает true, если связь существовала
+    @Override
+    public boolean removeFriend(int userId, int friendId) {
+        if (relationLog != null) {
+            return relationLog.removeFriend(userId, friendId);
+        }
         String sql = "DELETE FROM friendship WHERE user_id = ? AND friend_id = ?";
-        jdbcTemplate.update(sql, userId, friendId);
+        int deleted = friendshipTemplate(userId).update(sql, userId, friendId);
         log.debug("Дружба удалена из БД: {} -> {}", userId, friendId);
+        return deleted > 0;
+    }
+
+    // Логины всех пользователей по id (для индекса подсказок)
+    @Override
+    public Map<Integer, String> getLogins() {
+        Map<Integer, String> logins = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, login FROM users", rs -> {
+            logins.put(rs.getInt("user_id"), rs.getString("login"));
+        });
+        return logins;
+    }
+
+    // Id друзей каждого пользователя, отсортированные по возрастанию (для графа дружбы в памяти)
+    @Override
+    public Map<Integer, int[]> getFriendIds() {
+        if (relationLog != null) {
+            return relationLog.getFriends();
+        }
+        String sql = "SELECT user_id, friend_id FROM friendship ORDER BY user_id, friend_id";
+        if (shards == null) {
+            return jdbcTemplate.query(sql, SortedIntArrays.groupedBy("user_id", "friend_id"));
+        }
+        // Пользователь целиком лежит в одном шарде, поэтому части не пересекаются
+        Map<Integer, int[]> merged = new HashMap<>();
+        shards.scatter(template -> template.query(sql, SortedIntArrays.groupedBy("user_id", "friend_id")))
+                .forEach(merged::putAll);
+        return merged;
     }
 
+    @Override
     public List<User> getFriends(int userId) {
+        if (relationLog != null) {
+            return findByIds(Arrays.stream(relationLog.friendsOf(userId)).boxed().toList());
+        }
+        if (shards != null) {
+            String sql = "SELECT friend_id FROM friendship WHERE user_id = ? ORDER BY friend_id";
+            return findByIds(shards.forKey(userId).queryForList(sql, Integer.class, userId));
+        }
         String sql = """
                 SELECT u.* FROM users u
                 JOIN friendship f ON u.user_id = f.friend_id
@@ -102,6 +329,33 @@ public class UserDbStorage implements UserStorage {
         return jdbcTemplate.query(sql, new UserRowMapper(), userId);
     }
 
+    @Override
+    public List<User> getFriendsPage(int userId, int afterId, int limit) {
+        if (relationLog != null) {
+            return findByIds(Arrays.stream(relationLog.friendsOf(userId))
+                    .filter(friendId -> friendId > afterId)
+                    .limit(limit)
+                    .boxed()
+                    .toList());
+        }
+        if (shards != null) {
+            String sql = "SELECT friend_id FROM friendship WHERE user_id = ? AND friend_id > ? ORDER BY friend_id LIMIT ?";
+            return findByIds(shards.forKey(userId).queryForList(sql, Integer.class, userId, afterId, limit));
+        }
+        String sql = """
+                SELECT u.* FROM users u
+                JOIN friendship f ON u.user_id = f.friend_id
+                WHERE f.user_id = ? AND f.friend_id > ?
+                ORDER BY f.friend_id
+                LIMIT ?
+                """;
+        return jdbcTemplate.query(sql, new UserRowMapper(), userId, afterId, limit);
+    }
+
+    private JdbcTemplate friendshipTemplate(int userId) {
+        return shards == null ? jdbcTemplate : shards.forKey(userId);
+    }
+
     private static class UserRowMapper implements RowMapper<User> {
         @Override
         public User mapRow(ResultSet rs, int rowNum) throws SQLException {
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.PrefixIndex;
+
+// Подсказки по логинам: префикс ищется с начала логина,
+// первыми идут пользователи, которых чаще всего добавляют в друзья
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserLoginIndex {
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    private final UserStorage userStorage;
+    private final FriendshipGraph friendshipGraph;
+
+    private final PrefixIndex index = new PrefixIndex(false);
+
+    @PostConstruct
+    public void rebuild() {
+        index.rebuild(userStorage.getLogins());
+        log.info("Индекс логинов загружен из БД: {} пользователей", index.size());
+    }
+
+    public void put(int userId, String login) {
+        index.put(userId, login);
+    }
+
+    public int[] complete(String prefix, int limit) {
+        return index.complete(prefix, limit, friendshipGraph::getFollowerCount);
+    }
+}
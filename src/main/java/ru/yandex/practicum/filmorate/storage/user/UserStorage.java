@@ -1,18 +1,49 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserStorage {
     User add(User user);
 
+    // Возвращает id добавленных пользователей в порядке входного списка
+    List<Integer> addAll(List<User> users);
+
     User update(User user);
 
     List<User> getAll();
 
+    List<User> getPage(int afterId, int limit);
+
     Optional<User> findById(int id);
 
+    List<User> findByIds(List<Integer> ids);
+
+    Set<Integer> findExistingIds(Collection<Integer> ids);
+
     List<User> getCommonFriends(int userId, int otherId);
-}
\ No newline at end of file
+
+    // true, если связи ещё не было
+    boolean addFriend(int userId, int friendId);
+
+    // Для каждой пары true, если связь была новой
+    boolean[] addFriendships(List<Friendship> friendships);
+
+    // true, если связь существовала
+    boolean removeFriend(int userId, int friendId);
+
+    List<User> getFriends(int userId);
+
+    List<User> getFriendsPage(int userId, int afterId, int limit);
+
+    Map<Integer, String> getLogins();
+
+    // Отсортированные id друзей каждого пользователя
+    Map<Integer, int[]> getFriendIds();
+}
@@ -28,9 +28,16 @@ CREATE TABLE IF NOT EXISTS films (
     release_date DATE NOT NULL,
     duration INTEGER NOT NULL,
     mpa_id INTEGER NOT NULL,
+    likes_count INTEGER NOT NULL DEFAULT 0,
     CONSTRAINT fk_mpa FOREIGN KEY (mpa_id) REFERENCES mpa_rating(mpa_id)
 );
 
+-- Счётчик лайков для баз, созданных до его появления; заполняется задачей сверки
+ALTER TABLE films ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+
+-- Популярные фильмы читаются по индексу без подсчёта лайков
+CREATE INDEX IF NOT EXISTS idx_films_likes_count ON films (likes_count DESC, film_id);
+
 -- Таблица связи фильмов и жанров
 CREATE TABLE IF NOT EXISTS film_genre (
     film_id INTEGER NOT NULL,
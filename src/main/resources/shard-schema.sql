@@ -0,0 +1,18 @@
+-- Схема шарда связей (filmorate.shards.enabled=true): лайки по film_id, дружба по user_id.
+-- Фильмы и пользователи живут в основной базе, поэтому внешних ключей здесь нет — существование
+-- проверяет сервис до записи
+
+CREATE TABLE IF NOT EXISTS film_likes (
+    film_id INTEGER NOT NULL,
+    user_id INTEGER NOT NULL,
+    PRIMARY KEY (film_id, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_film_likes_user ON film_likes (user_id, film_id);
+
+CREATE TABLE IF NOT EXISTS friendship (
+    user_id INTEGER NOT NULL,
+    friend_id INTEGER NOT NULL,
+    PRIMARY KEY (user_id, friend_id),
+    CONSTRAINT check_not_self CHECK (user_id <> friend_id)
+);
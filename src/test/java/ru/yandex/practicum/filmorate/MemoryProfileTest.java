@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+// Порция по одной записи: ошибка во второй записи импорта приходится на вторую порцию
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "filmorate.bulk.chunk-size=1")
+@ActiveProfiles("memory")
+class MemoryProfileTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void shouldUseInMemoryStorages() {
+        assertInstanceOf(InMemoryFilmStorage.class, filmStorage);
+        assertInstanceOf(InMemoryUserStorage.class, userStorage);
+    }
+
+    @Test
+    void shouldResolveReferenceNamesAndCountLikes() {
+        Film film = filmStorage.add(film("Memory Film", 1, 3, 1));
+        User user = userStorage.add(user("memory-liker"));
+
+        assertEquals("G", film.getMpa().getName());
+        assertEquals(2, film.getGenres().size());
+        assertEquals(new Genre(1, "Комедия"), film.getGenres().iterator().next());
+
+        assertTrue(filmStorage.addLike(film, user));
+        assertFalse(filmStorage.addLike(film, user));
+        assertEquals(1, filmStorage.findById(film.getId()).orElseThrow().getLikesCount());
+        assertArrayEquals(new int[]{film.getId()}, filmStorage.getLikedFilmIds().get(user.getId()));
+
+        assertTrue(filmStorage.removeLike(film, user));
+        assertFalse(filmStorage.removeLike(film, user));
+        assertEquals(0, filmStorage.getLikeCounts().get(film.getId()));
+    }
+
+    @Test
+    void shouldRejectDuplicateLogin() {
+        userStorage.add(user("memory-duplicate"));
+
+        User duplicate = user("memory-duplicate");
+        duplicate.setEmail("other@mail.ru");
+        assertThrows(DuplicateKeyException.class, () -> userStorage.add(duplicate));
+    }
+
+    @Test
+    void shouldServeLikesAndFriendsOverHttp() {
+        String url = "http://localhost:" + port;
+        Film film = restTemplate.postForObject(url + "/films", film("Popular In Memory", 1), Film.class);
+        User first = restTemplate.postForObject(url + "/users", user("memory-first"), User.class);
+        User second = restTemplate.postForObject(url + "/users", user("memory-second"), User.class);
+
+        restTemplate.put(url + "/films/" + film.getId() + "/like/" + first.getId(), null);
+        restTemplate.put(url + "/films/" + film.getId() + "/like/" + second.getId(), null);
+        restTemplate.put(url + "/users/" + first.getId() + "/friends/" + second.getId(), null);
+
+        // likesCount только для чтения: в Film обратно не десериализуется, проверяем сам JSON
+        ResponseEntity<JsonNode> popular = restTemplate.getForEntity(url + "/films/popular?count=1", JsonNode.class);
+        assertEquals(HttpStatus.OK, popular.getStatusCode());
+        assertEquals(film.getId(), popular.getBody().get(0).get("id").asInt());
+        assertEquals(2, popular.getBody().get(0).get("likesCount").asInt());
+
+        User[] friends = restTemplate.getForObject(url + "/users/" + first.getId() + "/friends", User[].class);
+        assertEquals(1, friends.length);
+        assertEquals(second.getId(), friends[0].getId());
+    }
+
+    @Test
+    void shouldNotWriteAnyChunkOfRejectedBulkImport() {
+        String url = "http://localhost:" + port + "/bulk";
+        Film film = filmStorage.add(film("Bulk In Memory", 1));
+        User user = userStorage.add(user("memory-bulk"));
+        User friend = userStorage.add(user("memory-bulk-friend"));
+
+        ResponseEntity<String> likes = restTemplate.postForEntity(url + "/likes",
+                List.of(new FilmLike(film.getId(), user.getId()), new FilmLike(999_999, user.getId())),
+                String.class);
+        ResponseEntity<String> friendships = restTemplate.postForEntity(url + "/friendships",
+                List.of(new Friendship(user.getId(), friend.getId()), new Friendship(user.getId(), 999_999)),
+                String.class);
+
+        // Хранилище в памяти не откатывается вместе с транзакцией — первая порция не должна была записаться
+        assertEquals(HttpStatus.NOT_FOUND, likes.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, friendships.getStatusCode());
+        assertEquals(0, filmStorage.getLikeCounts().get(film.getId()));
+        assertFalse(filmStorage.getLikedFilmIds().containsKey(user.getId()));
+        assertTrue(userStorage.getFriends(user.getId()).isEmpty());
+    }
+}
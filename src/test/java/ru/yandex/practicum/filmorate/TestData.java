@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+// Общие заготовки фильмов и пользователей для тестов: проходят валидацию, ссылаются на справочники из data.sql
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static Film film(String name) {
+        return film(name, 1);
+    }
+
+    public static Film film(String name, int mpaId, int... genreIds) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        Mpa mpa = new Mpa();
+        mpa.setId(mpaId);
+        film.setMpa(mpa);
+        for (int genreId : genreIds) {
+            Genre genre = new Genre();
+            genre.setId(genreId);
+            film.getGenres().add(genre);
+        }
+        return film;
+    }
+
+    public static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
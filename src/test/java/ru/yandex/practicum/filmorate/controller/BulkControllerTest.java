@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.model.BulkResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BulkControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String getUrl() {
+        return "http://localhost:" + port + "/bulk";
+    }
+
+    @Test
+    void shouldImportUsersFilmsAndLikes() {
+        List<User> users = List.of(user("bulk1"), user("bulk2"));
+        ResponseEntity<BulkResult> usersResponse = restTemplate.postForEntity(getUrl() + "/users", users,
+                BulkResult.class);
+        assertEquals(HttpStatus.OK, usersResponse.getStatusCode());
+        assertEquals(2, usersResponse.getBody().getIds().size());
+
+        String films = """
+                {"name":"Bulk 1","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1},"genres":[{"id":1},{"id":2}]}
+                {"name":"Bulk 2","description":"d","releaseDate":"2001-01-01","duration":95,"mpa":{"id":3}}
+                """;
+        ResponseEntity<BulkResult> filmsResponse = restTemplate.postForEntity(getUrl() + "/films",
+                ndjson(films), BulkResult.class);
+        assertEquals(HttpStatus.OK, filmsResponse.getStatusCode());
+        List<Integer> filmIds = filmsResponse.getBody().getIds();
+        assertEquals(2, filmIds.size());
+
+        Film film = restTemplate.getForObject("http://localhost:" + port + "/films/" + filmIds.get(0), Film.class);
+        assertEquals("Bulk 1", film.getName());
+        assertEquals(2, film.getGenres().size());
+
+        int filmId = filmIds.get(1);
+        List<FilmLike> likes = List.of(
+                new FilmLike(filmId, usersResponse.getBody().getIds().get(0)),
+                new FilmLike(filmId, usersResponse.getBody().getIds().get(1)),
+                new FilmLike(filmId, usersResponse.getBody().getIds().get(1)));
+        ResponseEntity<BulkResult> likesResponse = restTemplate.postForEntity(getUrl() + "/likes", likes,
+                BulkResult.class);
+        assertEquals(HttpStatus.OK, likesResponse.getStatusCode());
+        assertEquals(2, likesResponse.getBody().getCount());
+
+        Film[] popular = restTemplate.getForObject("http://localhost:" + port + "/films/popular?count=1",
+                Film[].class);
+        assertEquals(filmId, popular[0].getId());
+    }
+
+    @Test
+    void shouldRejectUnknownMpaAndRollBack() {
+        String films = """
+                {"name":"Valid","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1}}
+                {"name":"Broken","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":999}}
+                """;
+        ResponseEntity<String> response = restTemplate.postForEntity(getUrl() + "/films", ndjson(films),
+                String.class);
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void shouldRejectInvalidFilm() {
+        String films = """
+                {"name":"","description":"d","releaseDate":"2000-01-01","duration":90,"mpa":{"id":1}}
+                """;
+        ResponseEntity<String> response = restTemplate.postForEntity(getUrl() + "/films", ndjson(films),
+                String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private HttpEntity<String> ndjson(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/x-ndjson"));
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.yandex.practicum.filmorate.controller.ConcurrencyLimitFilter.RequestClass;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+
+    // По одному месту на класс: второй одновременный запрос класса уже сверх предела
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new ConcurrencyLimitFilter(new ObjectMapper(), 1, 0.5, 1, Duration.ofSeconds(1),
+                1, Duration.ofSeconds(1), 1, Duration.ofSeconds(1), Duration.ofSeconds(3));
+    }
+
+    @Test
+    void testClassifiesRequests() {
+        assertThat(ConcurrencyLimitFilter.classify(request("PUT", "/films/1/like/2"))).isEqualTo(RequestClass.WRITE);
+        assertThat(ConcurrencyLimitFilter.classify(request("POST", "/users"))).isEqualTo(RequestClass.WRITE);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/films/1"))).isEqualTo(RequestClass.POINT_READ);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/films/popular")))
+                .isEqualTo(RequestClass.POINT_READ);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/films"))).isEqualTo(RequestClass.HEAVY);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/films/export"))).isEqualTo(RequestClass.HEAVY);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/users/1/recommendations")))
+                .isEqualTo(RequestClass.HEAVY);
+        assertThat(ConcurrencyLimitFilter.classify(request("POST", "/bulk/films"))).isEqualTo(RequestClass.HEAVY);
+        assertThat(ConcurrencyLimitFilter.classify(request("GET", "/actuator/prometheus"))).isNull();
+
+        MockHttpServletRequest page = request("GET", "/films");
+        page.setParameter("limit", "10");
+        assertThat(ConcurrencyLimitFilter.classify(page)).isEqualTo(RequestClass.POINT_READ);
+    }
+
+    @Test
+    void testRejectsOverLimitWithRetryAfter() throws Exception {
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        filter.doFilter(request("PUT", "/films/1/like/2"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(request("PUT", "/films/1/like/3"), rejected, failingChain()));
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(rejected.getContentAsString()).contains("\"error\"");
+        assertThat(filter.getLimits().get(RequestClass.WRITE).getRejectedCount()).isEqualTo(1);
+        assertThat(filter.getLimits().get(RequestClass.WRITE).getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    void testHoldsHeavyRequestsWhilePriorityClassIsSaturated() throws Exception {
+        MockHttpServletResponse heavy = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/films/1"), new MockHttpServletResponse(),
+                (req, res) -> filter.doFilter(request("GET", "/films"), heavy, failingChain()));
+        assertThat(heavy.getStatus()).isEqualTo(503);
+
+        AtomicBoolean passed = new AtomicBoolean();
+        filter.doFilter(request("GET", "/films"), new MockHttpServletResponse(), (req, res) -> passed.set(true));
+        assertThat(passed.get()).isTrue();
+    }
+
+    @Test
+    void testBacksOffOnSlowResponsesAndGrowsWhenBusy() {
+        AdaptiveLimit limit = new AdaptiveLimit(1, 10, Duration.ofSeconds(1), 0.5);
+        long slow = TimeUnit.SECONDS.toNanos(2);
+
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(slow);
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        // Второе медленное завершение в том же окне предел не трогает
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(slow);
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        limit.release(0);
+        assertThat(limit.getLimit()).isEqualTo(6);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+        assertThat(limit.getRejectedCount()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+
+    private static FilterChain failingChain() {
+        return (req, res) -> {
+            throw new AssertionError("Запрос сверх предела не должен дойти до контроллера");
+        };
+    }
+}
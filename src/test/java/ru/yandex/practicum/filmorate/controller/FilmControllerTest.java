@@ -1,19 +1,27 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Mpa;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.yandex.practicum.filmorate.TestData.film;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 class FilmControllerTest {
@@ -24,6 +32,9 @@ class FilmControllerTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private String getUrl() {
         return "http://localhost:" + port + "/films";
     }
@@ -94,4 +105,73 @@ class FilmControllerTest {
         assertTrue(response.getBody().getId() > 0);
         assertEquals("Valid Film", response.getBody().getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldExportFilmsAsNdjson() throws Exception {
+        Film created = restTemplate.postForEntity(getUrl(), film("Exported Film", 2, 3), Film.class).getBody();
+
+        ResponseEntity<String> response = restTemplate.getForEntity(getUrl() + "/export", String.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        List<Film> exported = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            exported.add(objectMapper.readValue(line, Film.class));
+        }
+        Film exportedFilm = exported.stream()
+                .filter(f -> f.getId() == created.getId())
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Exported Film", exportedFilm.getName());
+        assertEquals("PG", exportedFilm.getMpa().getName());
+        assertEquals(1, exportedFilm.getGenres().size());
+    }
+
+    @Test
+    void shouldSearchFilmsByNameAndDescription() {
+        Film film = film("Ёжик в тумане");
+        film.setDescription("Мультфильм про ёжика и медвежонка");
+        Film created = restTemplate.postForEntity(getUrl(), film, Film.class).getBody();
+
+        ResponseEntity<Film[]> response = restTemplate.getForEntity(getUrl() + "/search?q=ежики туманы",
+                Film[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().length);
+        assertEquals(created.getId(), response.getBody()[0].getId());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.getForEntity(getUrl() + "/search?q= ", String.class).getStatusCode());
+    }
+
+    @Test
+    void shouldAnswerNotModifiedUntilFilmChanges() {
+        Film created = restTemplate.postForEntity(getUrl(), film("Tagged"), Film.class).getBody();
+        String url = getUrl() + "/" + created.getId();
+
+        String etag = restTemplate.getForEntity(url, Film.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> cached = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, cached.getStatusCode());
+
+        created.setDescription("changed");
+        restTemplate.put(getUrl(), created);
+        ResponseEntity<Film> changed = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers), Film.class);
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertEquals("changed", changed.getBody().getDescription());
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void shouldStreamWholeCatalogAsJsonArray() {
+        Film created = restTemplate.postForEntity(getUrl(), film("Streamed Film"), Film.class).getBody();
+
+        ResponseEntity<Film[]> response = restTemplate.getForEntity(getUrl(), Film[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(List.of(response.getBody()).stream()
+                .anyMatch(f -> f.getId() == created.getId() && "G".equals(f.getMpa().getName())));
+    }
+}
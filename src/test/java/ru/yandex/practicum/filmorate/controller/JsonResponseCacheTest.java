@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testServesBytesUntilTagChanges() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, DataSize.ofKilobytes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get("genres", "\"v1\"", () -> List.of(loads.incrementAndGet()));
+        byte[] second = cache.get("genres", "\"v1\"", () -> List.of(loads.incrementAndGet()));
+        byte[] changed = cache.get("genres", "\"v2\"", () -> List.of(loads.incrementAndGet()));
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(changed, StandardCharsets.UTF_8)).isEqualTo("[2]");
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getSizeBytes()).isEqualTo(changed.length);
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedOverByteLimit() {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, DataSize.ofBytes(25));
+
+        cache.get("a", "t", () -> "x".repeat(8));
+        cache.get("b", "t", () -> "y".repeat(8));
+        cache.get("a", "t", () -> "unused");
+        cache.get("c", "t", () -> "z".repeat(8));
+
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getSizeBytes()).isEqualTo(20);
+        cache.get("a", "t", () -> "unused");
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+}
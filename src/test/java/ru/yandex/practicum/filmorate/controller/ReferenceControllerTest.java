@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.genre.CachedGenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.CachedMpaStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReferenceControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CachedGenreStorage genreStorage;
+
+    @Autowired
+    private CachedMpaStorage mpaStorage;
+
+    @Test
+    void shouldServeRefreshedGenres() {
+        String url = "http://localhost:" + port + "/genres";
+        ResponseEntity<String> before = restTemplate.getForEntity(url, String.class);
+        assertFalse(before.getBody().contains("Вестерн"));
+
+        jdbcTemplate.update("INSERT INTO genre (genre_id, genre_name) VALUES (10, 'Вестерн')");
+        try {
+            genreStorage.refresh();
+            assertRefreshed(url, before, "Вестерн");
+        } finally {
+            jdbcTemplate.update("DELETE FROM genre WHERE genre_id = 10");
+            genreStorage.refresh();
+        }
+    }
+
+    @Test
+    void shouldServeRefreshedMpa() {
+        String url = "http://localhost:" + port + "/mpa";
+        ResponseEntity<String> before = restTemplate.getForEntity(url, String.class);
+        assertFalse(before.getBody().contains("TV-MA"));
+
+        jdbcTemplate.update("INSERT INTO mpa_rating (mpa_id, mpa_name) VALUES (10, 'TV-MA')");
+        try {
+            mpaStorage.refresh();
+            assertRefreshed(url, before, "TV-MA");
+        } finally {
+            jdbcTemplate.update("DELETE FROM mpa_rating WHERE mpa_id = 10");
+            mpaStorage.refresh();
+        }
+    }
+
+    // Клиент со старым тегом получает не 304, а новые данные — и не из закэшированных байтов
+    private void assertRefreshed(String url, ResponseEntity<String> before, String added) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(before.getHeaders().getETag());
+        ResponseEntity<String> after = restTemplate.exchange(url, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertEquals(HttpStatus.OK, after.getStatusCode());
+        assertNotEquals(before.getHeaders().getETag(), after.getHeaders().getETag());
+        assertTrue(after.getBody().contains(added));
+    }
+}
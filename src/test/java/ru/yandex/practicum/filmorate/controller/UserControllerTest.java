@@ -7,12 +7,15 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
 import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource(properties = {
@@ -121,4 +124,82 @@ class UserControllerTest {
         ResponseEntity<String> response = restTemplate.exchange(getUrl(), HttpMethod.PUT, request, String.class);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldSuggestFriendsOfFriends() {
+        int user = createUser("suggest_user");
+        int friend = createUser("suggest_friend");
+        int candidate = createUser("suggest_candidate");
+        restTemplate.put(getUrl() + "/" + user + "/friends/" + friend, null);
+
+        ResponseEntity<User[]> before = restTemplate.getForEntity(
+                getUrl() + "/" + user + "/friends/suggestions", User[].class);
+        assertEquals(HttpStatus.OK, before.getStatusCode());
+        assertEquals(0, before.getBody().length);
+
+        // Новая дружба друга должна сбросить закэшированные рекомендации
+        restTemplate.put(getUrl() + "/" + friend + "/friends/" + candidate, null);
+
+        User[] after = restTemplate.getForObject(getUrl() + "/" + user + "/friends/suggestions?limit=5", User[].class);
+        assertEquals(1, after.length);
+        assertEquals(candidate, after[0].getId());
+    }
+
+    @Test
+    void shouldRejectInvalidSuggestionsLimit() {
+        int user = createUser("suggest_limit");
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                getUrl() + "/" + user + "/friends/suggestions?limit=0", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void shouldRecommendFilmsLikedBySimilarUsers() {
+        int user = createUser("recommend_user");
+        int similar = createUser("recommend_similar");
+        int shared = createFilm("Shared");
+        int recommended = createFilm("Recommended");
+        String films = "http://localhost:" + port + "/films/";
+        restTemplate.put(films + shared + "/like/" + user, null);
+        restTemplate.put(films + shared + "/like/" + similar, null);
+        restTemplate.put(films + recommended + "/like/" + similar, null);
+
+        ResponseEntity<Film[]> response = restTemplate.getForEntity(
+                getUrl() + "/" + user + "/recommendations", Film[].class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().length);
+        assertEquals(recommended, response.getBody()[0].getId());
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(getUrl() + "/9999/recommendations", String.class).getStatusCode());
+    }
+
+    @Test
+    void shouldAutocompleteLoginsByFollowers() {
+        int quiet = createUser("typeahead_quiet");
+        int popular = createUser("typeahead_popular");
+        int fan = createUser("fan_of_typeahead");
+        restTemplate.put(getUrl() + "/" + fan + "/friends/" + popular, null);
+
+        User[] users = restTemplate.getForObject(getUrl() + "/autocomplete?prefix=TypeAhead", User[].class);
+        assertEquals(2, users.length);
+        assertEquals(popular, users[0].getId());
+        assertEquals(quiet, users[1].getId());
+
+        Film[] films = restTemplate.getForObject("http://localhost:" + port
+                + "/films/autocomplete?prefix=typeahead", Film[].class);
+        assertEquals(0, films.length);
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.getForEntity(getUrl() + "/autocomplete?prefix=a&limit=51", String.class)
+                        .getStatusCode());
+    }
+
+    private int createFilm(String name) {
+        return restTemplate.postForObject("http://localhost:" + port + "/films", film(name), Film.class).getId();
+    }
+
+    private int createUser(String login) {
+        return restTemplate.postForObject(getUrl(), user(login), User.class).getId();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Нагрузочный прогон против запущенного экземпляра: сравнение режима платформенных потоков
+// с профилем virtual на смеси лайков, дружбы и чтения популярных фильмов.
+// Запуск: mvn -q test-compile exec:java -Dexec.classpathScope=test
+//   -Dexec.mainClass=ru.yandex.practicum.filmorate.load.LoadRunner
+//   -Dexec.args="http://localhost:8080 2000 30"  (адрес, число одновременных клиентов, секунды)
+public final class LoadRunner {
+
+    private static final int USERS = 1000;
+    private static final int FILMS = 200;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    private LoadRunner(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        new LoadRunner(baseUrl).run(concurrency, seconds);
+    }
+
+    private void run(int concurrency, int seconds) throws Exception {
+        List<Integer> userIds = seed("/bulk/users", IntStream.range(0, USERS)
+                .mapToObj(i -> {
+                    String login = "load" + System.nanoTime() + "_" + i;
+                    return String.format("{\"email\":\"%s@example.com\",\"login\":\"%s\",\"birthday\":\"1990-01-01\"}",
+                            login, login);
+                }));
+        List<Integer> filmIds = seed("/bulk/films", IntStream.range(0, FILMS)
+                .mapToObj(i -> String.format("{\"name\":\"Load film %d\",\"description\":\"load\","
+                        + "\"releaseDate\":\"2000-01-01\",\"duration\":100,\"mpa\":{\"id\":1}}", i)));
+
+        LongAdder errors = new LongAdder();
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        long started = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> latencies.add(worker(deadline, userIds, filmIds, errors)));
+            }
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("Запросов: %d, ошибок: %d, %.0f запр/с%n", all.length, errors.sum(), all.length / elapsed);
+        if (all.length > 0) {
+            System.out.printf("p50 = %.1f мс, p99 = %.1f мс, max = %.1f мс%n",
+                    all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+        }
+    }
+
+    private long[] worker(long deadline, List<Integer> userIds, List<Integer> filmIds, LongAdder errors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] samples = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            int user = userIds.get(random.nextInt(userIds.size()));
+            int other = userIds.get(random.nextInt(userIds.size()));
+            int film = filmIds.get(random.nextInt(filmIds.size()));
+            HttpRequest request = switch (random.nextInt(4)) {
+                case 0 -> put("/films/" + film + "/like/" + user);
+                case 1 -> HttpRequest.newBuilder(URI.create(baseUrl + "/films/" + film + "/like/" + user))
+                        .DELETE().build();
+                case 2 -> put("/users/" + user + "/friends/" + (other == user ? userIds.get(0) : other));
+                default -> HttpRequest.newBuilder(URI.create(baseUrl + "/films/popular?count=10")).GET().build();
+            };
+
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 500) {
+                    errors.increment();
+                }
+            } catch (IOException e) {
+                errors.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private HttpRequest put(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private List<Integer> seed(String path, Stream<String> lines) throws Exception {
+        String body = lines.collect(Collectors.joining("\n"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Не удалось подготовить данные " + path + ": " + response.body());
+        }
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(response.body()).get("ids").forEach(id -> ids.add(id.asInt()));
+        return ids;
+    }
+}
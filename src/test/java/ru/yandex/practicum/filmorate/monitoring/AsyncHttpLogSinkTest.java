@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.attributes.HttpAttributes;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncHttpLogSinkTest {
+
+    // Поток записи не запущен, поэтому всё принятое остаётся в очереди
+    private final AsyncHttpLogSink sink = new AsyncHttpLogSink(Duration.ofMillis(500), 2);
+
+    @Test
+    void testKeepsErrorsAndSlowRequestsAndSkipsTheRest() throws Exception {
+        sink.write(correlation(10), request(false), response(200));
+        sink.write(correlation(10), request(false), response(404));
+        sink.write(correlation(700), request(false), response(200));
+
+        assertThat(sink.getSkippedCount()).isEqualTo(1);
+        assertThat(sink.getPendingCount()).isEqualTo(2);
+        assertThat(sink.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void testKeepsSampledExchanges() throws Exception {
+        sink.write(correlation(10), request(true), response(200));
+
+        assertThat(sink.getSkippedCount()).isZero();
+        assertThat(sink.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testDropsWhenBufferIsFull() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            sink.write(correlation(10), request(false), response(500));
+        }
+
+        assertThat(sink.getPendingCount()).isEqualTo(2);
+        assertThat(sink.getDroppedCount()).isEqualTo(3);
+    }
+
+    private Correlation correlation(long millis) {
+        Correlation correlation = mock(Correlation.class);
+        when(correlation.getId()).thenReturn("id");
+        when(correlation.getDuration()).thenReturn(Duration.ofMillis(millis));
+        return correlation;
+    }
+
+    private HttpRequest request(boolean sampled) throws Exception {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getAttributes()).thenReturn(HttpAttributes.of(HttpLogSampling.SAMPLED, sampled));
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestUri()).thenReturn("http://localhost/films");
+        when(request.getBodyAsString()).thenReturn("");
+        return request;
+    }
+
+    private HttpResponse response(int status) throws Exception {
+        HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getBodyAsString()).thenReturn("[]");
+        return response;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpRequest;
+
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HttpLogConfigTest {
+
+    private final Predicate<HttpRequest> condition = new HttpLogConfig().requestCondition();
+
+    @Test
+    void testSkipsOnlyUnpagedFilmList() {
+        assertThat(condition.test(request("GET", "/films", ""))).isFalse();
+        assertThat(condition.test(request("GET", "/films", "sort=name"))).isFalse();
+
+        assertThat(condition.test(request("GET", "/films", "limit=10&after=5"))).isTrue();
+        assertThat(condition.test(request("GET", "/films", "after=5&limit=10"))).isTrue();
+        assertThat(condition.test(request("POST", "/films", ""))).isTrue();
+        assertThat(condition.test(request("GET", "/films/1", ""))).isTrue();
+    }
+
+    private HttpRequest request(String method, String path, String query) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getPath()).thenReturn(path);
+        when(request.getQuery()).thenReturn(query);
+        return request;
+    }
+}
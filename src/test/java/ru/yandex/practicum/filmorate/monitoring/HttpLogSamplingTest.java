@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Logbook;
+import org.zalando.logbook.Precorrelation;
+import org.zalando.logbook.Sink;
+import org.zalando.logbook.servlet.LogbookFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpLogSamplingTest {
+
+    private static final String REQUEST_BODY = "{\"name\":\"Film\"}";
+    private static final String RESPONSE_BODY = "{\"id\":1}";
+
+    private final List<String[]> logged = new ArrayList<>();
+
+    @Test
+    void testCapturesBodiesOfSampledExchanges() throws Exception {
+        MockHttpServletResponse response = exchange(1.0, 200);
+
+        assertThat(logged).hasSize(1);
+        assertThat(logged.get(0)).containsExactly("true", REQUEST_BODY, RESPONSE_BODY);
+        assertThat(response.getContentAsString()).isEqualTo(RESPONSE_BODY);
+    }
+
+    @Test
+    void testDoesNotCaptureBodiesOutsideSample() throws Exception {
+        MockHttpServletResponse response = exchange(0.0, 500);
+
+        // Обмен дошёл до журнала, но тела не копировались, а клиент и контроллер получили их целиком
+        assertThat(logged).hasSize(1);
+        assertThat(logged.get(0)).containsExactly("false", "", "");
+        assertThat(response.getStatus()).isEqualTo(500);
+        assertThat(response.getContentAsString()).isEqualTo(RESPONSE_BODY);
+    }
+
+    private MockHttpServletResponse exchange(double sampleRate, int status) throws Exception {
+        HttpLogSampling sampling = new HttpLogSampling(sampleRate);
+        Logbook logbook = Logbook.builder()
+                .strategy(sampling)
+                .attributeExtractor(sampling)
+                .sink(new RecordingSink())
+                .build();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/films");
+        request.setContentType("application/json");
+        request.setContent(REQUEST_BODY.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        FilterChain controller = (req, res) -> {
+            String body = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertThat(body).isEqualTo(REQUEST_BODY);
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getOutputStream().write(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+        };
+        new LogbookFilter(logbook).doFilter(request, response, controller);
+        return response;
+    }
+
+    private class RecordingSink implements Sink {
+
+        @Override
+        public void write(Precorrelation precorrelation, HttpRequest request) {
+        }
+
+        @Override
+        public void write(Correlation correlation, HttpRequest request, HttpResponse response) throws IOException {
+            logged.add(new String[]{String.valueOf(HttpLogSampling.isSampled(request)),
+                    request.getBodyAsString(), response.getBodyAsString()});
+        }
+    }
+}
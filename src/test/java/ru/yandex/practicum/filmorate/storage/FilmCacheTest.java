@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FilmCacheTest {
+
+    @Test
+    void testReadThroughAndStats() {
+        FilmCache cache = new FilmCache(10, Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(createFilm(id));
+        });
+        Optional<Film> cached = cache.get(1, id -> {
+            loads.incrementAndGet();
+            return Optional.of(createFilm(id));
+        });
+
+        assertThat(cached).hasValueSatisfying(f -> assertThat(f.getName()).isEqualTo("Film 1"));
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void testReturnsIsolatedCopies() {
+        FilmCache cache = new FilmCache(10, Duration.ofMinutes(1));
+        cache.get(1, id -> Optional.of(createFilm(id)));
+
+        Film first = cache.get(1, id -> Optional.empty()).orElseThrow();
+        first.setName("Changed");
+        first.getGenres().clear();
+
+        Film second = cache.get(1, id -> Optional.empty()).orElseThrow();
+        assertThat(second.getName()).isEqualTo("Film 1");
+        assertThat(second.getGenres()).hasSize(1);
+    }
+
+    @Test
+    void testInvalidateAndSizeEviction() {
+        FilmCache cache = new FilmCache(2, Duration.ofMinutes(1));
+        cache.getAll(List.of(1, 2, 3), ids -> ids.stream().map(this::createFilm).toList());
+
+        assertThat(cache.stats().getSize()).isEqualTo(2);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+
+        cache.invalidate(3);
+        assertThat(cache.get(3, id -> Optional.empty())).isEmpty();
+    }
+
+    @Test
+    void testExpiredEntriesAreReloaded() {
+        FilmCache cache = new FilmCache(10, Duration.ZERO);
+        cache.get(1, id -> Optional.of(createFilm(id)));
+
+        Optional<Film> reloaded = cache.get(1, id -> Optional.empty());
+
+        assertThat(reloaded).isEmpty();
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    private Film createFilm(int id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Film " + id);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new Mpa(1, "G", null));
+        film.getGenres().add(new Genre(1, "Комедия"));
+        return film;
+    }
+}
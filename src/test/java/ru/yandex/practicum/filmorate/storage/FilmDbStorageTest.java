@@ -3,20 +3,30 @@ package ru.yandex.practicum.filmorate.storage;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.unit.DataSize;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+import ru.yandex.practicum.filmorate.storage.shard.RelationShards;
 import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -222,6 +232,69 @@ class FilmDbStorageTest {
         assertThat(popular.get(0).getId()).isEqualTo(savedFilm1.getId());
     }
 
+    @Test
+    void testLikesCountMaintained() {
+        Film savedFilm = filmStorage.add(createFilm("Counted Film", 120, 1));
+        User user1 = userStorage.add(createUser("count1@example.com", "count1"));
+        User user2 = userStorage.add(createUser("count2@example.com", "count2"));
+
+        filmStorage.addLike(savedFilm, user1);
+        filmStorage.addLike(savedFilm, user2);
+        assertThat(likesCount(savedFilm.getId())).isEqualTo(2);
+
+        filmStorage.removeLike(savedFilm, user1);
+        assertThat(likesCount(savedFilm.getId())).isEqualTo(1);
+        assertThat(filmStorage.findById(savedFilm.getId()).orElseThrow().getLikesCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLikesCountMaintainedWithRelationLog(@TempDir Path dir) throws IOException {
+        RelationLog relationLog = new RelationLog(dir, DataSize.ofKilobytes(64), "none", Duration.ofMillis(5), 100,
+                false);
+        relationLog.start();
+        FilmDbStorage logStorage = new FilmDbStorage(jdbcTemplate,
+                new StaticListableBeanFactory().getBeanProvider(RelationShards.class),
+                new StaticListableBeanFactory(Map.of("relationLog", relationLog)).getBeanProvider(RelationLog.class));
+        Film savedFilm = logStorage.add(createFilm("Logged Film", 120, 1));
+        User user1 = userStorage.add(createUser("log1@example.com", "log1"));
+        User user2 = userStorage.add(createUser("log2@example.com", "log2"));
+
+        assertThat(logStorage.addLike(savedFilm, user1)).isTrue();
+        assertThat(logStorage.addLike(savedFilm, user1)).isFalse();
+        assertThat(logStorage.addLikes(List.of(new FilmLike(savedFilm.getId(), user1.getId()),
+                new FilmLike(savedFilm.getId(), user2.getId())))).containsExactly(false, true);
+        assertThat(likesCount(savedFilm.getId())).isEqualTo(2);
+
+        assertThat(logStorage.removeLike(savedFilm, user1)).isTrue();
+        logStorage.removeLikes(List.of(new FilmLike(savedFilm.getId(), user2.getId()),
+                new FilmLike(savedFilm.getId(), user1.getId())));
+        assertThat(likesCount(savedFilm.getId())).isZero();
+        assertThat(logStorage.repairLikeCounts()).isZero();
+        relationLog.shutdown();
+    }
+
+    @Test
+    void testRepairLikeCounts() {
+        Film savedFilm1 = filmStorage.add(createFilm("Repair Film 1", 120, 1));
+        Film savedFilm2 = filmStorage.add(createFilm("Repair Film 2", 90, 2));
+        User user = userStorage.add(createUser("repair@example.com", "repairuser"));
+        filmStorage.addLike(savedFilm1, user);
+
+        // Искусственно рассинхронизируем счётчик
+        jdbcTemplate.update("UPDATE films SET likes_count = 5 WHERE film_id = ?", savedFilm2.getId());
+        assertThat(filmStorage.getPopular(1).get(0).getId()).isEqualTo(savedFilm2.getId());
+
+        assertThat(filmStorage.repairLikeCounts()).isEqualTo(1);
+        assertThat(likesCount(savedFilm1.getId())).isEqualTo(1);
+        assertThat(likesCount(savedFilm2.getId())).isZero();
+        assertThat(filmStorage.getPopular(1).get(0).getId()).isEqualTo(savedFilm1.getId());
+        assertThat(filmStorage.repairLikeCounts()).isZero();
+    }
+
+    private int likesCount(int filmId) {
+        return jdbcTemplate.queryForObject("SELECT likes_count FROM films WHERE film_id = ?", Integer.class, filmId);
+    }
+
     private Film createFilm(String name, int duration, int mpaId) {
         Film film = new Film();
         film.setName(name);
@@ -0,0 +1,106 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmDbStorage.class, UserDbStorage.class, FilmLeaderboard.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmLeaderboardTest {
+
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final FilmLeaderboard leaderboard;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM film_genre");
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+        leaderboard.rebuild();
+    }
+
+    @Test
+    void testRebuildFromDb() {
+        Film film1 = filmStorage.add(film("Film 1"));
+        Film film2 = filmStorage.add(film("Film 2"));
+        User user = userStorage.add(user("rebuild"));
+        filmStorage.addLike(film2, user);
+
+        leaderboard.rebuild();
+
+        assertThat(leaderboard.top(10)).containsExactly(film2.getId(), film1.getId());
+        assertThat(leaderboard.getLikes(film2.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void testAddAndRemoveLike() {
+        Film film1 = filmStorage.add(film("Film 1"));
+        Film film2 = filmStorage.add(film("Film 2"));
+        leaderboard.register(film1.getId());
+        leaderboard.register(film2.getId());
+        User user = userStorage.add(user("like"));
+
+        leaderboard.addLike(film2.getId(), () -> filmStorage.addLike(film2, user));
+        // Повторный лайк не должен менять счётчик
+        leaderboard.addLike(film2.getId(), () -> filmStorage.addLike(film2, user));
+
+        assertThat(leaderboard.getLikes(film2.getId())).isEqualTo(1);
+        assertThat(leaderboard.top(1)).containsExactly(film2.getId());
+
+        leaderboard.removeLike(film2.getId(), () -> filmStorage.removeLike(film2, user));
+        leaderboard.removeLike(film2.getId(), () -> filmStorage.removeLike(film2, user));
+
+        assertThat(leaderboard.getLikes(film2.getId())).isZero();
+        assertThat(leaderboard.top(10)).containsExactly(film1.getId(), film2.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // потокам нужны закоммиченные фильм и пользователи
+    void testConcurrentLikesMatchDb() throws InterruptedException {
+        Film film = filmStorage.add(film("Concurrent"));
+        leaderboard.register(film.getId());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            users.add(userStorage.add(user("user" + i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (User user : users) {
+            executor.submit(() -> leaderboard.addLike(film.getId(), () -> filmStorage.addLike(film, user)));
+            executor.submit(() -> leaderboard.addLike(film.getId(), () -> filmStorage.addLike(film, user)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(leaderboard.getLikes(film.getId())).isEqualTo(users.size());
+        assertThat(filmStorage.getLikeCounts().get(film.getId())).isEqualTo(users.size());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikesIndex;
+import ru.yandex.practicum.filmorate.storage.film.FilmRecommendations;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmDbStorage.class, UserDbStorage.class, FilmLikesIndex.class, FilmRecommendations.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmRecommendationsTest {
+
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final FilmLikesIndex likesIndex;
+    private final FilmRecommendations recommendations;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film shared;
+    private Film common;
+    private Film rare;
+    private Film unrelated;
+    private User target;
+    private User similar;
+    private User lessSimilar;
+    private User stranger;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM film_genre");
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+        likesIndex.rebuild();
+
+        shared = filmStorage.add(film("Shared"));
+        Film secondShared = filmStorage.add(film("Second shared"));
+        common = filmStorage.add(film("Common"));
+        rare = filmStorage.add(film("Rare"));
+        unrelated = filmStorage.add(film("Unrelated"));
+        target = userStorage.add(user("target"));
+        similar = userStorage.add(user("similar"));
+        lessSimilar = userStorage.add(user("less"));
+        stranger = userStorage.add(user("stranger"));
+
+        like(shared, target);
+        like(secondShared, target);
+        // similar совпадает с target по двум фильмам, lessSimilar — по одному, stranger — ни по одному
+        like(shared, similar);
+        like(secondShared, similar);
+        like(common, similar);
+        like(rare, similar);
+        like(shared, lessSimilar);
+        like(common, lessSimilar);
+        like(unrelated, stranger);
+    }
+
+    @Test
+    void testRecommendFilmsOfSimilarUsers() {
+        // common: 2 + 1 очко, rare: 2 очка; фильмы stranger не рекомендуются
+        assertThat(recommendations.recommend(target.getId(), 10))
+                .containsExactly(common.getId(), rare.getId());
+        assertThat(recommendations.recommend(target.getId(), 1)).containsExactly(common.getId());
+        assertThat(recommendations.recommend(stranger.getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void testPrecomputedSkipsFilmsLikedLater() {
+        recommendations.precomputeAll();
+
+        like(common, target);
+
+        assertThat(recommendations.recommend(target.getId(), 10)).containsExactly(rare.getId());
+    }
+
+    private void like(Film film, User user) {
+        likesIndex.addLike(film.getId(), user.getId(), () -> filmStorage.addLike(film, user));
+    }
+}
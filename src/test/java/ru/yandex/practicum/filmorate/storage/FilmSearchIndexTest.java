@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.storage.film.TextAnalyzer;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmDbStorage.class, UserDbStorage.class, FilmLeaderboard.class, FilmSearchIndex.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FilmSearchIndexTest {
+
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final FilmLeaderboard leaderboard;
+    private final FilmSearchIndex searchIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    private Film matrix;
+    private Film reloaded;
+    private Film war;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM film_genre");
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+
+        matrix = filmStorage.add(filmWithDescription("The Matrix", "A hacker learns the truth about reality"));
+        reloaded = filmStorage.add(filmWithDescription("Reloaded", "The second part of the Matrix trilogy"));
+        war = filmStorage.add(filmWithDescription("Война и мир", "Экранизация романа о войне 1812 года"));
+        leaderboard.rebuild();
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void testTermsNormalizeRussianAndEnglish() {
+        assertThat(TextAnalyzer.terms("Ёжики, в ТУМАНЕ!")).containsExactly("ежик", "туман");
+        assertThat(TextAnalyzer.terms("The hackers learned")).containsExactly("hacker", "learn");
+    }
+
+    @Test
+    void testNameMatchRanksAboveDescriptionMatch() {
+        assertThat(searchIndex.search("matrix", 10)).containsExactly(matrix.getId(), reloaded.getId());
+        assertThat(searchIndex.search("matrix hackers", 10)).containsExactly(matrix.getId());
+        assertThat(searchIndex.search("войны", 10)).containsExactly(war.getId());
+        assertThat(searchIndex.search("matrix война", 10)).isEmpty();
+        assertThat(searchIndex.search("the", 10)).isEmpty();
+    }
+
+    @Test
+    void testPopularityBreaksEqualRelevance() {
+        Film other = filmStorage.add(filmWithDescription("Other", "Another matrix story"));
+        searchIndex.index(other.getId(), other.getName(), other.getDescription());
+        assertThat(searchIndex.search("matrix", 10))
+                .containsExactly(matrix.getId(), reloaded.getId(), other.getId());
+
+        // У reloaded и other совпадение только в описании — выше тот, у кого больше лайков
+        User user = userStorage.add(user("fan"));
+        leaderboard.addLike(other.getId(), () -> filmStorage.addLike(other, user));
+        assertThat(searchIndex.search("matrix", 10))
+                .containsExactly(matrix.getId(), other.getId(), reloaded.getId());
+        assertThat(searchIndex.search("matrix", 1)).containsExactly(matrix.getId());
+    }
+
+    @Test
+    void testIndexReplacesUpdatedFilm() {
+        searchIndex.index(matrix.getId(), "Inception", "Dreams within dreams");
+
+        assertThat(searchIndex.search("matrix", 10)).containsExactly(reloaded.getId());
+        assertThat(searchIndex.search("dream", 10)).containsExactly(matrix.getId());
+    }
+
+    private Film filmWithDescription(String name, String description) {
+        Film film = film(name);
+        film.setDescription(description);
+        return film;
+    }
+}
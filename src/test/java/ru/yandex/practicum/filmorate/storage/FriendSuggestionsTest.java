@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.storage.user.FriendSuggestions;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({UserDbStorage.class, FriendshipGraph.class, FriendSuggestions.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FriendSuggestionsTest {
+
+    private final UserDbStorage userStorage;
+    private final FriendshipGraph graph;
+    private final FriendSuggestions suggestions;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM users");
+        graph.rebuild();
+        suggestions.clear();
+    }
+
+    @Test
+    void testRankByMutualFriends() {
+        int user = addUser("user");
+        int friend1 = addUser("friend1");
+        int friend2 = addUser("friend2");
+        int popular = addUser("popular");
+        int rare = addUser("rare");
+        addFriend(user, friend1);
+        addFriend(user, friend2);
+        addFriend(friend1, popular);
+        addFriend(friend2, popular);
+        addFriend(friend2, rare);
+        // Сам пользователь и его друзья в рекомендации не попадают
+        addFriend(friend1, user);
+        addFriend(friend1, friend2);
+
+        assertThat(suggestions.suggest(user, 10)).containsExactly(popular, rare);
+        assertThat(suggestions.suggest(user, 1)).containsExactly(popular);
+        assertThat(suggestions.suggest(rare, 10)).isEmpty();
+    }
+
+    @Test
+    void testInvalidateOnFriendOfFriendChange() {
+        int user = addUser("user");
+        int friend = addUser("friend");
+        int stranger = addUser("stranger");
+        addFriend(user, friend);
+        assertThat(suggestions.suggest(user, 10)).isEmpty();
+
+        // Друг пользователя добавил нового друга — рекомендации пользователя должны обновиться
+        addFriend(friend, stranger);
+        suggestions.invalidate(friend);
+
+        assertThat(suggestions.suggest(user, 10)).containsExactly(stranger);
+
+        // Теперь stranger — друг самого пользователя и из рекомендаций пропадает
+        addFriend(user, stranger);
+        suggestions.invalidate(user);
+
+        assertThat(suggestions.suggest(user, 10)).isEmpty();
+    }
+
+    private void addFriend(int userId, int friendId) {
+        graph.addFriend(userId, friendId, () -> userStorage.addFriend(userId, friendId));
+    }
+
+    private int addUser(String login) {
+        return userStorage.add(user(login)).getId();
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({UserDbStorage.class, FriendshipGraph.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class FriendshipGraphTest {
+
+    private final UserDbStorage userStorage;
+    private final FriendshipGraph graph;
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM users");
+        graph.rebuild();
+    }
+
+    @Test
+    void testRebuildFromDb() {
+        int user = addUser("owner");
+        int friend1 = addUser("friend1");
+        int friend2 = addUser("friend2");
+        userStorage.addFriend(user, friend2);
+        userStorage.addFriend(user, friend1);
+
+        graph.rebuild();
+
+        assertThat(graph.getFriends(user)).containsExactly(friend1, friend2);
+        assertThat(graph.getFriends(friend1)).isEmpty();
+        assertThat(graph.getFollowers(friend1)).containsExactly(user);
+    }
+
+    @Test
+    void testAddAndRemoveFriend() {
+        int user = addUser("owner");
+        int friend = addUser("friend");
+
+        assertThat(graph.addFriend(user, friend, () -> userStorage.addFriend(user, friend))).isTrue();
+        // Повторное добавление не меняет граф
+        assertThat(graph.addFriend(user, friend, () -> userStorage.addFriend(user, friend))).isFalse();
+        assertThat(graph.getFriends(user)).containsExactly(friend);
+        assertThat(graph.getFollowers(friend)).containsExactly(user);
+
+        assertThat(graph.removeFriend(user, friend, () -> userStorage.removeFriend(user, friend))).isTrue();
+        assertThat(graph.removeFriend(user, friend, () -> userStorage.removeFriend(user, friend))).isFalse();
+        assertThat(graph.getFriends(user)).isEmpty();
+        assertThat(graph.getFollowers(friend)).isEmpty();
+    }
+
+    @Test
+    void testCommonFriendsMatchSql() {
+        int first = addUser("first");
+        int second = addUser("second");
+        int[] others = new int[6];
+        for (int i = 0; i < others.length; i++) {
+            others[i] = addUser("other" + i);
+        }
+        // Общие — чётные; у каждого есть и свои друзья
+        for (int i = 0; i < others.length; i++) {
+            int friend = others[i];
+            if (i % 2 == 0 || i == 1) {
+                graph.addFriend(first, friend, () -> userStorage.addFriend(first, friend));
+            }
+            if (i % 2 == 0 || i == 3) {
+                graph.addFriend(second, friend, () -> userStorage.addFriend(second, friend));
+            }
+        }
+
+        int[] expected = userStorage.getCommonFriends(first, second).stream()
+                .mapToInt(User::getId)
+                .sorted()
+                .toArray();
+        assertThat(graph.getCommonFriends(first, second)).containsExactly(expected);
+        assertThat(graph.getCommonFriends(first, second)).containsExactly(others[0], others[2], others[4]);
+    }
+
+    private int addUser(String login) {
+        return userStorage.add(user(login)).getId();
+    }
+}
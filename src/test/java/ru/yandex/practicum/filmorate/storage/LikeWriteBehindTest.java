@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.ServiceUnavailableException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.film.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmLikesIndex;
+import ru.yandex.practicum.filmorate.storage.film.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmDbStorage.class, UserDbStorage.class, FilmLeaderboard.class, FilmLikesIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // сброс идёт и из фонового потока, данные должны быть закоммичены
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class LikeWriteBehindTest {
+
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final FilmLeaderboard leaderboard;
+    private final FilmLikesIndex likesIndex;
+    private final JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path tempDir;
+
+    private Film film1;
+    private Film film2;
+    private User user1;
+    private User user2;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM film_likes");
+        jdbcTemplate.update("DELETE FROM film_genre");
+        jdbcTemplate.update("DELETE FROM friendship");
+        jdbcTemplate.update("DELETE FROM films");
+        jdbcTemplate.update("DELETE FROM users");
+        film1 = filmStorage.add(film("Film 1"));
+        film2 = filmStorage.add(film("Film 2"));
+        user1 = userStorage.add(user("wb1"));
+        user2 = userStorage.add(user("wb2"));
+        leaderboard.rebuild();
+        likesIndex.rebuild();
+    }
+
+    @Test
+    void testOpposingOperationsCancelOut() throws IOException {
+        LikeWriteBehind buffer = create(100, Duration.ZERO, "none");
+
+        buffer.enqueue(film1.getId(), user1.getId(), true);
+        buffer.enqueue(film1.getId(), user1.getId(), false);
+
+        assertThat(buffer.getPendingCount()).isZero();
+        buffer.shutdown();
+        assertThat(likesInDb()).isEmpty();
+    }
+
+    @Test
+    void testFlushAppliesBatch() throws IOException {
+        filmStorage.addLike(film1, user1);
+        LikeWriteBehind buffer = create(100, Duration.ZERO, "none");
+
+        buffer.enqueue(film1.getId(), user1.getId(), false);
+        buffer.enqueue(film2.getId(), user1.getId(), true);
+        buffer.enqueue(film2.getId(), user2.getId(), true);
+        assertThat(likesInDb()).containsExactly(film1.getId() + ":" + user1.getId());
+
+        buffer.flush();
+
+        assertThat(buffer.getPendingCount()).isZero();
+        assertThat(likesInDb()).containsExactly(
+                film2.getId() + ":" + user1.getId(), film2.getId() + ":" + user2.getId());
+        buffer.shutdown();
+    }
+
+    @Test
+    void testRejectWhenFull() throws IOException {
+        LikeWriteBehind buffer = create(1, Duration.ZERO, "none");
+
+        buffer.enqueue(film1.getId(), user1.getId(), true);
+        // Операция по уже ожидающей паре места не требует
+        buffer.enqueue(film1.getId(), user1.getId(), true);
+
+        assertThatThrownBy(() -> buffer.enqueue(film2.getId(), user1.getId(), true))
+                .isInstanceOf(ServiceUnavailableException.class);
+        buffer.shutdown();
+    }
+
+    @Test
+    void testReplayJournalAfterCrash() throws IOException {
+        LikeWriteBehind crashed = create(100, Duration.ZERO, "journal");
+        likesIndex.addLikeIfAbsent(film1.getId(), user1.getId(),
+                () -> crashed.enqueue(film1.getId(), user1.getId(), true));
+        crashed.enqueue(film2.getId(), user2.getId(), true);
+        crashed.enqueue(film2.getId(), user2.getId(), false);
+        // Процесс «упал» без сброса: в БД ничего нет, операции только в журнале
+        assertThat(likesInDb()).isEmpty();
+
+        LikeWriteBehind restarted = create(100, Duration.ZERO, "journal");
+
+        assertThat(likesInDb()).containsExactly(film1.getId() + ":" + user1.getId());
+        assertThat(leaderboard.getLikes(film1.getId())).isEqualTo(1);
+        assertThat(likesIndex.hasLike(film1.getId(), user1.getId())).isTrue();
+        restarted.shutdown();
+    }
+
+    @Test
+    void testSuspendFlushesAndHoldsChangesUntilResume() throws Exception {
+        LikeWriteBehind buffer = create(100, Duration.ZERO, "none");
+        buffer.enqueue(film1.getId(), user1.getId(), true);
+
+        buffer.suspend();
+
+        assertThat(likesInDb()).containsExactly(film1.getId() + ":" + user1.getId());
+        // Изменения из других потоков во время импорта отклоняются
+        CompletableFuture<Boolean> change = CompletableFuture.supplyAsync(() -> buffer.whileAccepting(() -> true));
+        assertThatThrownBy(change::join).hasCauseInstanceOf(ServiceUnavailableException.class);
+
+        buffer.resume();
+        assertThat(CompletableFuture.supplyAsync(() -> buffer.whileAccepting(() -> true)).get()).isTrue();
+        buffer.shutdown();
+    }
+
+    private LikeWriteBehind create(int capacity, Duration offerTimeout, String durability) throws IOException {
+        LikeWriteBehind buffer = new LikeWriteBehind(filmStorage, leaderboard, likesIndex, capacity, 100,
+                Duration.ofHours(1), offerTimeout, durability, tempDir.resolve("likes.journal"));
+        buffer.start();
+        return buffer;
+    }
+
+    private List<String> likesInDb() {
+        return jdbcTemplate.queryForList(
+                "SELECT film_id || ':' || user_id FROM film_likes ORDER BY film_id, user_id", String.class);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private final Map<Integer, Integer> popularity = Map.of(1, 5, 2, 10, 3, 0, 4, 5);
+
+    @Test
+    void testCompletesWordPrefixesByPopularity() {
+        PrefixIndex index = new PrefixIndex(true);
+        index.rebuild(Map.of(
+                1, "The Matrix",
+                2, "Matrix Reloaded",
+                3, "Ёлки",
+                4, "Mad Max"));
+
+        assertThat(index.complete("mat", 10, id -> popularity.get(id))).containsExactly(2, 1);
+        assertThat(index.complete("MA", 10, id -> popularity.get(id))).containsExactly(2, 1, 4);
+        assertThat(index.complete("ma", 2, id -> popularity.get(id))).containsExactly(2, 1);
+        assertThat(index.complete("елк", 10, id -> popularity.get(id))).containsExactly(3);
+        assertThat(index.complete("the  matrix", 10, id -> popularity.get(id))).containsExactly(1);
+        assertThat(index.complete("zz", 10, id -> popularity.get(id))).isEmpty();
+    }
+
+    @Test
+    void testPutReplacesPreviousText() {
+        PrefixIndex index = new PrefixIndex(false);
+        index.rebuild(Map.of(1, "alice", 2, "bob"));
+
+        index.put(1, "carol");
+
+        assertThat(index.complete("al", 10, id -> 0)).isEmpty();
+        assertThat(index.complete("car", 10, id -> 0)).containsExactly(1);
+        // Без поиска по словам совпадение только с начала текста
+        index.put(3, "mr_bob");
+        assertThat(index.complete("bob", 10, id -> 0)).containsExactly(2);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testShortPrefixRanksOnlyBoundedCandidates() {
+        int catalog = PrefixIndex.CANDIDATES * 10;
+        Map<Integer, String> texts = new HashMap<>();
+        Map<Integer, Integer> likes = new HashMap<>();
+        for (int id = 1; id <= catalog; id++) {
+            texts.put(id, "a" + id);
+            likes.put(id, id);
+        }
+        PrefixIndex index = new PrefixIndex(false);
+        index.rebuild(texts);
+        AtomicInteger lookups = new AtomicInteger();
+        IntUnaryOperator popularity = id -> {
+            lookups.incrementAndGet();
+            return likes.get(id);
+        };
+
+        assertThat(index.complete("a", 3, popularity)).containsExactly(catalog, catalog - 1, catalog - 2);
+        lookups.set(0);
+        // Повторный запрос не обходит каталог, но видит новую популярность внутри набора кандидатов
+        likes.put(catalog - 2, catalog + 1);
+        assertThat(index.complete("a", 3, popularity)).containsExactly(catalog - 2, catalog, catalog - 1);
+        assertThat(lookups.get()).isLessThanOrEqualTo(PrefixIndex.CANDIDATES);
+
+        // Новый текст сбрасывает наборы своих коротких префиксов
+        likes.put(catalog + 1, catalog * 2);
+        index.put(catalog + 1, "a new one");
+        assertThat(index.complete("a", 1, popularity)).containsExactly(catalog + 1);
+        // Длинный префикс по-прежнему обходит свой узкий диапазон
+        assertThat(index.complete("a12", 2, popularity)).containsExactly(1299, 1298);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.EntityVersions;
+import ru.yandex.practicum.filmorate.storage.genre.CachedGenreStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreDbStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.CachedMpaStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({GenreDbStorage.class, CachedGenreStorage.class, MpaDbStorage.class, CachedMpaStorage.class,
+        EntityVersions.class})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ReferenceCacheTest {
+
+    private final CachedGenreStorage genreStorage;
+    private final CachedMpaStorage mpaStorage;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityVersions versions;
+
+    @Test
+    void testLoadedAtStartup() {
+        assertThat(genreStorage.getAll()).extracting(Genre::getId).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(mpaStorage.getAll()).extracting(Mpa::getName).containsExactly("G", "PG", "PG-13", "R", "NC-17");
+        assertThat(genreStorage.findById(4)).hasValueSatisfying(g -> assertThat(g.getName()).isEqualTo("Триллер"));
+        assertThat(mpaStorage.findById(3)).hasValueSatisfying(m -> assertThat(m.getName()).isEqualTo("PG-13"));
+    }
+
+    @Test
+    void testUnknownIds() {
+        assertThat(genreStorage.findById(0)).isEmpty();
+        assertThat(genreStorage.findById(-1)).isEmpty();
+        assertThat(genreStorage.findById(999)).isEmpty();
+        assertThat(mpaStorage.findById(6)).isEmpty();
+    }
+
+    @Test
+    void testRefreshPicksUpChanges() {
+        jdbcTemplate.update("INSERT INTO genre (genre_id, genre_name) VALUES (10, 'Вестерн')");
+
+        assertThat(genreStorage.findById(10)).isEmpty();
+
+        genreStorage.refresh();
+
+        assertThat(genreStorage.findById(10)).hasValueSatisfying(g -> assertThat(g.getName()).isEqualTo("Вестерн"));
+        assertThat(genreStorage.getAll()).hasSize(7);
+
+        // Кэш живёт дольше тестовой транзакции — возвращаем его в исходное состояние
+        jdbcTemplate.update("DELETE FROM genre WHERE genre_id = 10");
+        genreStorage.refresh();
+    }
+
+    @Test
+    void testRefreshChangesReferenceTag() {
+        String tag = versions.referenceTag();
+        assertThat(versions.referenceTag()).isEqualTo(tag);
+
+        genreStorage.refresh();
+        String afterGenres = versions.referenceTag();
+        assertThat(afterGenres).isNotEqualTo(tag);
+
+        mpaStorage.refresh();
+        assertThat(versions.referenceTag()).isNotEqualTo(afterGenres);
+    }
+}
@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.filmorate.storage.relationlog.RelationLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RelationLogTest {
+
+    @TempDir
+    Path dir;
+
+    // Пять записей на сегмент, чтобы переключение сегментов происходило уже в коротком тесте
+    private RelationLog open(String durability, int compactSegments) throws IOException {
+        RelationLog relationLog = new RelationLog(dir, DataSize.ofBytes(45), durability,
+                Duration.ofMillis(5), compactSegments, false);
+        relationLog.start();
+        return relationLog;
+    }
+
+    @Test
+    void testRecordsOnlyRealChanges() throws IOException {
+        RelationLog relationLog = open("none", 100);
+
+        assertThat(relationLog.addLike(1, 10)).isTrue();
+        assertThat(relationLog.addLike(1, 10)).isFalse();
+        assertThat(relationLog.removeLike(2, 10)).isFalse();
+        assertThat(relationLog.removeFriend(3, 4)).isFalse();
+
+        assertThat(relationLog.getAppendedCount()).isEqualTo(1);
+        relationLog.shutdown();
+    }
+
+    @Test
+    void testReplaysStateAcrossSegmentsAfterRestart() throws IOException {
+        RelationLog relationLog = open("interval", 100);
+        for (int userId = 1; userId <= 12; userId++) {
+            relationLog.addLike(userId % 3 + 1, userId);
+        }
+        relationLog.removeLike(1, 3);
+        relationLog.addFriend(1, 2);
+        relationLog.addFriend(1, 3);
+        relationLog.addFriend(2, 1);
+        relationLog.removeFriend(1, 2);
+        relationLog.shutdown();
+
+        assertThat(files("segment-")).hasSize(4);
+
+        RelationLog restored = open("interval", 100);
+        assertThat(restored.getLikes()).containsOnlyKeys(1, 2, 3);
+        assertThat(restored.getLikes().get(1)).containsExactly(6, 9, 12);
+        assertThat(restored.getLikes().get(2)).containsExactly(1, 4, 7, 10);
+        assertThat(restored.getLikes().get(3)).containsExactly(2, 5, 8, 11);
+        assertThat(restored.friendsOf(1)).containsExactly(3);
+        assertThat(restored.friendsOf(2)).containsExactly(1);
+        assertThat(restored.friendsOf(5)).isEmpty();
+        restored.shutdown();
+    }
+
+    @Test
+    void testCompactionReplacesSegmentsWithSnapshot() throws IOException {
+        RelationLog relationLog = open("none", 100);
+        for (int userId = 1; userId <= 20; userId++) {
+            relationLog.addLike(7, userId);
+            relationLog.addFriend(userId, 100);
+        }
+        for (int userId = 1; userId <= 20; userId += 2) {
+            relationLog.removeLike(7, userId);
+        }
+
+        relationLog.compact();
+        relationLog.addLike(8, 1);
+        relationLog.removeFriend(1, 100);
+        relationLog.shutdown();
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("segment-")).hasSize(1);
+
+        RelationLog restored = open("none", 100);
+        assertThat(restored.getLikes().get(7)).containsExactly(2, 4, 6, 8, 10, 12, 14, 16, 18, 20);
+        assertThat(restored.getLikes().get(8)).containsExactly(1);
+        assertThat(restored.friendsOf(1)).isEmpty();
+        assertThat(restored.friendsOf(20)).containsExactly(100);
+        assertThat(restored.getFriends()).hasSize(19);
+        restored.shutdown();
+    }
+
+    @Test
+    void testFsyncWaitsForSharedSync() throws Exception {
+        RelationLog relationLog = open("fsync", 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = Stream.iterate(1, userId -> userId + 1).limit(200)
+                    .map(userId -> executor.submit(() -> relationLog.addLike(userId % 5 + 1, userId)))
+                    .toList();
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Каждая операция дождалась сброса, но сбросов не больше, чем операций
+        assertThat(relationLog.getSyncCount()).isBetween(1L, 200L);
+        relationLog.shutdown();
+
+        RelationLog restored = open("none", 1000);
+        assertThat(restored.getLikes().values().stream().mapToInt(userIds -> userIds.length).sum()).isEqualTo(200);
+        restored.shutdown();
+    }
+
+    @Test
+    void testCompactionDuringConcurrentWritesKeepsEveryChange() throws Exception {
+        RelationLog relationLog = open("none", 2);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = Stream.iterate(1, writer -> writer + 1).limit(4)
+                    .<Future<?>>map(writer -> executor.submit(() -> {
+                        // Каждый писатель работает со своими ключами: лайк, дружба и снятие каждого третьего лайка
+                        for (int userId = 1; userId <= 1998; userId++) {
+                            relationLog.addLike(writer, userId);
+                            relationLog.addFriend(writer * 10_000 + userId, writer);
+                            if (userId % 3 == 0) {
+                                relationLog.removeLike(writer, userId - 1);
+                            }
+                        }
+                    }))
+                    .toList();
+            while (writers.stream().anyMatch(writer -> !writer.isDone())) {
+                relationLog.compact();
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(relationLog.getCompactionCount()).isPositive();
+        relationLog.shutdown();
+
+        RelationLog restored = open("none", 2);
+        for (int writer = 1; writer <= 4; writer++) {
+            int[] likes = restored.getLikes().get(writer);
+            assertThat(likes).hasSize(1998 - 1998 / 3);
+            for (int userId = 1; userId <= 1998; userId++) {
+                if (userId % 3 == 2) {
+                    assertThat(likes).doesNotContain(userId);
+                } else {
+                    assertThat(likes).contains(userId);
+                }
+                assertThat(restored.friendsOf(writer * 10_000 + userId)).containsExactly(writer);
+            }
+        }
+        restored.shutdown();
+    }
+
+    @Test
+    void testRejectsShardedRelations() {
+        assertThatThrownBy(() -> new RelationLog(dir, DataSize.ofMegabytes(1), "none", Duration.ofMillis(5), 4, true))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+}
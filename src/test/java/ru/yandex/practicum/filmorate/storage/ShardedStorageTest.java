@@ -0,0 +1,152 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.TestPropertySource;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmLike;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmDbStorage;
+import ru.yandex.practicum.filmorate.storage.shard.RelationShards;
+import ru.yandex.practicum.filmorate.storage.shard.Resharder;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FilmDbStorage.class, UserDbStorage.class, RelationShards.class})
+@TestPropertySource(properties = {
+        "filmorate.shards.enabled=true",
+        "filmorate.shards.count=3",
+        "filmorate.shards.url=jdbc:h2:mem:shard-test-%d;DB_CLOSE_DELAY=-1"
+})
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ShardedStorageTest {
+
+    private final FilmDbStorage filmStorage;
+    private final UserDbStorage userStorage;
+    private final RelationShards shards;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Шарды не участвуют в транзакции теста, поэтому чистим их явно
+    @BeforeEach
+    void setUp() {
+        shards.scatter(template -> template.update("DELETE FROM film_likes") + template.update("DELETE FROM friendship"));
+    }
+
+    @Test
+    void testLikesArePartitionedByFilmAndGatheredBack() {
+        List<Integer> films = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            films.add(filmStorage.add(film("Film " + i)).getId());
+        }
+        int first = addUser("first");
+        int second = addUser("second");
+
+        boolean[] inserted = filmStorage.addLikes(List.of(
+                new FilmLike(films.get(0), first),
+                new FilmLike(films.get(1), first),
+                new FilmLike(films.get(2), first),
+                new FilmLike(films.get(1), second),
+                new FilmLike(films.get(0), first)));
+
+        assertThat(inserted).containsExactly(true, true, true, true, false);
+        for (int film : films) {
+            Integer stored = shards.forKey(film).queryForObject(
+                    "SELECT COUNT(*) FROM film_likes WHERE film_id = ?", Integer.class, film);
+            assertThat(stored).isEqualTo(filmStorage.getLikeCounts().get(film));
+        }
+        assertThat(filmStorage.getLikeCounts().get(films.get(1))).isEqualTo(2);
+        assertThat(filmStorage.getLikeCounts().get(films.get(3))).isZero();
+        assertThat(filmStorage.getLikedFilmIds().get(first))
+                .containsExactly(films.get(0), films.get(1), films.get(2));
+
+        jdbcTemplate.update("UPDATE films SET likes_count = 0");
+        assertThat(filmStorage.repairLikeCounts()).isEqualTo(3);
+        assertThat(filmStorage.getPopular(1).get(0).getId()).isEqualTo(films.get(1));
+    }
+
+    @Test
+    void testPopularIsGatheredFromShards() {
+        List<Integer> films = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            films.add(filmStorage.add(film("Popular " + i)).getId());
+        }
+        int first = addUser("first");
+        int second = addUser("second");
+        filmStorage.addLikes(List.of(
+                new FilmLike(films.get(2), first),
+                new FilmLike(films.get(2), second),
+                new FilmLike(films.get(3), first)));
+        // Счётчик в основной базе разошёлся с шардами — рейтинг на него не смотрит
+        jdbcTemplate.update("UPDATE films SET likes_count = 100 WHERE film_id = ?", films.get(0));
+
+        List<Film> popular = filmStorage.getPopular(2);
+        assertThat(popular).extracting(Film::getId).containsExactly(films.get(2), films.get(3));
+        assertThat(popular).extracting(Film::getLikesCount).containsExactly(2, 1);
+
+        int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM films", Integer.class);
+        List<Film> all = filmStorage.getPopular(total + 1);
+        assertThat(all).hasSize(total);
+        assertThat(all.subList(2, total)).extracting(Film::getLikesCount).containsOnly(0);
+    }
+
+    @Test
+    void testCommonFriendsAcrossShards() {
+        int first = addUser("first");
+        int second = addUser("second");
+        int common = addUser("common");
+        int other = addUser("other");
+        userStorage.addFriendships(List.of(
+                new Friendship(first, common),
+                new Friendship(first, other),
+                new Friendship(second, common)));
+
+        assertThat(userStorage.getCommonFriends(first, second)).extracting(User::getId).containsExactly(common);
+        assertThat(userStorage.getFriendIds().get(first)).containsExactly(common, other);
+        assertThat(userStorage.getFriendsPage(first, common, 10)).extracting(User::getId).containsExactly(other);
+        assertThat(userStorage.removeFriend(first, other)).isTrue();
+        assertThat(userStorage.getFriends(first)).extracting(User::getId).containsExactly(common);
+    }
+
+    @Test
+    void testResharderMovesRowsToNewShardCount() {
+        int user = addUser("user");
+        List<FilmLike> likes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            likes.add(new FilmLike(filmStorage.add(film("Film " + i)).getId(), user));
+        }
+        filmStorage.addLikes(likes);
+
+        new Resharder("jdbc:h2:mem:shard-test-%d;DB_CLOSE_DELAY=-1", 3,
+                "jdbc:h2:mem:reshard-test-%d;DB_CLOSE_DELAY=-1", 2, "sa", "").run();
+
+        for (int shard = 0; shard < 2; shard++) {
+            JdbcTemplate target = new JdbcTemplate(new DriverManagerDataSource(
+                    String.format("jdbc:h2:mem:reshard-test-%d;DB_CLOSE_DELAY=-1", shard), "sa", ""));
+            List<Integer> filmIds = target.queryForList("SELECT film_id FROM film_likes", Integer.class);
+            int expectedShard = shard;
+            assertThat(filmIds).allMatch(filmId -> RelationShards.shardOf(filmId, 2) == expectedShard);
+            likes.removeIf(like -> filmIds.contains(like.getFilmId()));
+        }
+        assertThat(likes).isEmpty();
+    }
+
+    private int addUser(String login) {
+        return userStorage.add(user(login)).getId();
+    }
+}
@@ -196,4 +196,55 @@ class UserDbStorageTest {
         assertThat(commonFriends).hasSize(1);
         assertThat(commonFriends.get(0).getId()).isEqualTo(savedCommonFriend.getId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetFriendsPage() {
+        User user = createUser("owner@example.com", "owner");
+        User savedUser = userStorage.add(user);
+        for (int i = 1; i <= 5; i++) {
+            User friend = userStorage.add(createUser("page" + i + "@example.com", "page" + i));
+            userStorage.addFriend(savedUser.getId(), friend.getId());
+        }
+
+        List<User> firstPage = userStorage.getFriendsPage(savedUser.getId(), 0, 3);
+        List<User> secondPage = userStorage.getFriendsPage(savedUser.getId(),
+                firstPage.get(firstPage.size() - 1).getId(), 3);
+
+        assertThat(firstPage).extracting(User::getLogin).containsExactly("page1", "page2", "page3");
+        assertThat(secondPage).extracting(User::getLogin).containsExactly("page4", "page5");
+    }
+
+    @Test
+    void testGetPage() {
+        for (int i = 1; i <= 4; i++) {
+            userStorage.add(createUser("all" + i + "@example.com", "all" + i));
+        }
+
+        List<User> firstPage = userStorage.getPage(0, 2);
+        List<User> secondPage = userStorage.getPage(firstPage.get(1).getId(), 2);
+        List<User> lastPage = userStorage.getPage(secondPage.get(1).getId(), 2);
+
+        assertThat(firstPage).extracting(User::getLogin).containsExactly("all1", "all2");
+        assertThat(secondPage).extracting(User::getLogin).containsExactly("all3", "all4");
+        assertThat(lastPage).isEmpty();
+    }
+
+    @Test
+    void testFindByIds() {
+        User first = userStorage.add(createUser("ids1@example.com", "ids1"));
+        User second = userStorage.add(createUser("ids2@example.com", "ids2"));
+
+        List<User> users = userStorage.findByIds(List.of(second.getId(), 999, first.getId()));
+
+        assertThat(users).extracting(User::getLogin).containsExactly("ids2", "ids1");
+    }
+
+    private User createUser(String email, String login) {
+        User user = new User();
+        user.setEmail(email);
+        user.setLogin(login);
+        user.setName("Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}